@@ -0,0 +1,140 @@
+package am.asukiasyan.booking;
+
+import am.asukiasyan.booking.availability.OccupancyService;
+import am.asukiasyan.booking.enums.UnitType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Full application context on throwaway Postgres and Redis containers. Redis is a real server rather than an
+ * in-process stand-in because the availability counters are maintained by Lua scripts.
+ */
+public final class BenchmarkContext implements AutoCloseable {
+
+    public static final int STAY_DAYS = 3;
+
+    private static final int REDIS_PORT = 6379;
+    private static final int BATCH_SIZE = 1_000;
+    private static final UnitType[] TYPES = UnitType.values();
+
+    private final PostgreSQLContainer<?> postgres;
+    private final GenericContainer<?> redis;
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkContext(PostgreSQLContainer<?> postgres, GenericContainer<?> redis, boolean web, String... extraArgs) {
+        this.postgres = postgres;
+        this.redis = redis;
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.main.web-application-type=" + (web ? "servlet" : "none"),
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--spring.datasource.url=" + postgres.getJdbcUrl() + "&reWriteBatchedInserts=true",
+                "--spring.datasource.username=" + postgres.getUsername(),
+                "--spring.datasource.password=" + postgres.getPassword(),
+                "--spring.liquibase.url=" + postgres.getJdbcUrl(),
+                "--spring.liquibase.user=" + postgres.getUsername(),
+                "--spring.liquibase.password=" + postgres.getPassword(),
+                "--spring.data.redis.host=" + redis.getHost(),
+                "--spring.data.redis.port=" + redis.getMappedPort(REDIS_PORT)));
+        args.addAll(List.of(extraArgs));
+        this.context = new SpringApplicationBuilder(BookingServiceApplication.class).run(args.toArray(String[]::new));
+    }
+
+    /**
+     * @param extraArgs additional {@code --property=value} arguments for the application
+     */
+    public static BenchmarkContext start(String... extraArgs) {
+        return start(false, extraArgs);
+    }
+
+    /**
+     * Like {@link #start(String...)} but also starts the embedded web server on a random {@link #port()}.
+     */
+    public static BenchmarkContext startServer(String... extraArgs) {
+        return start(true, extraArgs);
+    }
+
+    @SuppressWarnings("resource")
+    private static BenchmarkContext start(boolean web, String... extraArgs) {
+        var postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:16-alpine"));
+        var redis = new GenericContainer<>(DockerImageName.parse("redis:7.2-alpine")).withExposedPorts(REDIS_PORT);
+        postgres.start();
+        redis.start();
+        return new BenchmarkContext(postgres, redis, web, extraArgs);
+    }
+
+    public int port() {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * Inserts {@code unitCount} random units and books each {@value #STAY_DAYS}-day block of the next {@code days}
+     * days with probability {@code bookingDensity}.
+     *
+     * @return ids of the inserted units
+     */
+    public List<Long> seed(int unitCount, double bookingDensity, int days) {
+        var jdbcTemplate = bean(JdbcTemplate.class);
+        var random = new SplittableRandom(42);
+        var firstId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) + 1 from units", Long.class);
+
+        List<Object[]> units = new ArrayList<>();
+        for (int i = 0; i < unitCount; i++) {
+            units.add(new Object[]{
+                    random.nextInt(1, 6),
+                    TYPES[random.nextInt(TYPES.length)].name(),
+                    random.nextInt(1, 21),
+                    "Benchmark unit " + i,
+                    BigDecimal.valueOf(random.nextInt(5_000, 100_000), 2)});
+        }
+        insert(jdbcTemplate, "insert into units (rooms, type, floor, description, base_cost) values (?, ?, ?, ?, ?)", units);
+        var unitIds = jdbcTemplate.queryForList("select id from units where id >= ? order by id", Long.class, firstId);
+
+        var today = LocalDate.now();
+        List<Object[]> bookings = new ArrayList<>();
+        for (var unitId : unitIds) {
+            for (int day = 0; day + STAY_DAYS <= days; day += STAY_DAYS) {
+                if (random.nextDouble() < bookingDensity) {
+                    var start = today.plusDays(day);
+                    bookings.add(new Object[]{unitId, Date.valueOf(start), Date.valueOf(start.plusDays(STAY_DAYS - 1))});
+                }
+            }
+        }
+        insert(jdbcTemplate, """
+                insert into bookings (unit_id, user_id, start_date, end_date, status, total_cost)
+                values (?, 1, ?, ?, 'CONFIRMED', 100.00)
+                """, bookings);
+
+        bean(OccupancyService.class).warmUp();
+        return unitIds;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+        redis.stop();
+        postgres.stop();
+    }
+
+    private void insert(JdbcTemplate jdbcTemplate, String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package am.asukiasyan.booking.availability;
+
+import am.asukiasyan.booking.repository.projection.BookingSpan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OccupancyIndexBenchmark {
+
+    private static final int HORIZON_DAYS = 400;
+    private static final int STAY_DAYS = 3;
+
+    @Param({"1000", "100000"})
+    private int unitCount;
+
+    @Param({"0.1", "0.5"})
+    private double bookingDensity;
+
+    private final LocalDate today = LocalDate.now();
+    private final SplittableRandom random = new SplittableRandom(42);
+    private OccupancyIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<BookingSpan> spans = new ArrayList<>();
+        long bookingId = 1;
+        for (long unitId = 1; unitId <= unitCount; unitId++) {
+            for (int day = 0; day + STAY_DAYS < HORIZON_DAYS; day += STAY_DAYS + 1) {
+                if (random.nextDouble() < bookingDensity) {
+                    var start = today.plusDays(day);
+                    spans.add(new BookingSpan(bookingId++, unitId, start, start.plusDays(STAY_DAYS - 1)));
+                }
+            }
+        }
+        index = new OccupancyIndex(HORIZON_DAYS);
+        index.reset(today, spans);
+    }
+
+    @Benchmark
+    public boolean reserveAndRelease() {
+        var unitId = random.nextLong(1, unitCount + 1L);
+        var start = today.plusDays(random.nextInt(HORIZON_DAYS - STAY_DAYS));
+        var end = start.plusDays(STAY_DAYS - 1);
+        var reserved = index.tryOccupy(unitId, start, end);
+        if (reserved) {
+            index.release(unitId, start, end);
+        }
+        return reserved;
+    }
+
+    @Benchmark
+    public Set<Long> occupiedUnitsForWeekend() {
+        var start = today.plusDays(random.nextInt(HORIZON_DAYS - STAY_DAYS));
+        return index.occupiedUnits(start, start.plusDays(2));
+    }
+}
@@ -0,0 +1,85 @@
+package am.asukiasyan.booking.repository;
+
+import am.asukiasyan.booking.BenchmarkContext;
+import am.asukiasyan.booking.domain.Unit;
+import am.asukiasyan.booking.enums.UnitType;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Persists a batch of units in one transaction and reports the JDBC statements Hibernate prepared per batch. With
+ * pooled sequence ids and insert batching this is about two statements per 50 rows instead of one per row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BulkInsertBenchmark {
+
+    @Param({"100", "1000"})
+    private int rows;
+
+    private BenchmarkContext context;
+    private UnitRepository unitRepository;
+    private TransactionTemplate transactionTemplate;
+    private Statistics statistics;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class StatementCounters {
+        public long statements;
+        public long insertedRows;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("--spring.jpa.properties.hibernate.generate_statistics=true");
+        unitRepository = context.bean(UnitRepository.class);
+        transactionTemplate = new TransactionTemplate(context.bean(PlatformTransactionManager.class));
+        statistics = context.bean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Unit> saveUnits(StatementCounters counters) {
+        var before = statistics.getPrepareStatementCount();
+        var saved = transactionTemplate.execute(status -> unitRepository.saveAll(IntStream.range(0, rows)
+                .mapToObj(this::unit)
+                .toList()));
+        counters.statements += statistics.getPrepareStatementCount() - before;
+        counters.insertedRows += rows;
+        return saved;
+    }
+
+    private Unit unit(int i) {
+        return Unit.builder()
+                .rooms(1 + i % 5)
+                .type(UnitType.values()[i % UnitType.values().length])
+                .floor(1 + i % 20)
+                .description("Bulk insert unit " + i)
+                .baseCost(BigDecimal.valueOf(10_000 + i, 2))
+                .build();
+    }
+}
@@ -0,0 +1,139 @@
+package am.asukiasyan.booking.repository;
+
+import am.asukiasyan.booking.BenchmarkContext;
+import am.asukiasyan.booking.domain.Booking;
+import am.asukiasyan.booking.domain.Unit;
+import am.asukiasyan.booking.dto.UnitResponse;
+import am.asukiasyan.booking.enums.BookingStatus;
+import am.asukiasyan.booking.enums.UnitType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One offset search request (page plus count) with type, cost and availability filters. {@code cachedShape} goes
+ * through {@code UnitRepositoryImpl}, which reuses one JPQL string per filter shape and projects rows straight into
+ * responses; {@code freshCriteria} builds both queries as new {@code CriteriaQuery} objects, loads managed entities
+ * and maps them with the markup computed in Java, as the search did before. {@code prepareThreshold=0} turns the driver's server-side prepared statements off. Run with
+ * {@code -prof gc} or {@code -prof stack} to see where the CPU goes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchQueryCachingBenchmark {
+
+    private static final int UNITS = 5_000;
+    private static final int PAGE_SIZE = 20;
+    private static final BigDecimal MIN_COST = new BigDecimal("100.00");
+    private static final BigDecimal MAX_COST = new BigDecimal("600.00");
+    private static final BigDecimal MARKUP = new BigDecimal("1.15");
+
+    @Param({"0", "1"})
+    private int prepareThreshold;
+
+    private BenchmarkContext context;
+    private UnitRepository unitRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnly;
+    private PageRequest pageable;
+    private LocalDate start;
+    private LocalDate end;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("--spring.datasource.hikari.data-source-properties.prepareThreshold="
+                + prepareThreshold);
+        context.seed(UNITS, 0.3, 30);
+        unitRepository = context.bean(UnitRepository.class);
+        entityManager = context.bean(EntityManager.class);
+        readOnly = new TransactionTemplate(context.bean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        pageable = PageRequest.of(2, PAGE_SIZE, Sort.by("baseCost", "id"));
+        // beyond the occupancy index horizon, so both variants check availability with NOT EXISTS
+        start = LocalDate.now().plusDays(500);
+        end = start.plusDays(BenchmarkContext.STAY_DAYS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<UnitResponse> cachedShape() {
+        return readOnly.execute(status -> {
+            var content = unitRepository.search(UnitType.FLAT, null, null, MIN_COST, MAX_COST, start, end, true,
+                    pageable, MARKUP);
+            var total = unitRepository.countMatching(UnitType.FLAT, null, null, MIN_COST, MAX_COST, start, end, true);
+            return new PageImpl<>(content, pageable, total);
+        });
+    }
+
+    @Benchmark
+    public Page<UnitResponse> freshCriteria() {
+        return readOnly.execute(status -> {
+            var cb = entityManager.getCriteriaBuilder();
+            var cq = cb.createQuery(Unit.class);
+            var unit = cq.from(Unit.class);
+            cq.select(unit).where(predicates(cb, cq, unit));
+            cq.orderBy(cb.asc(unit.get("baseCost")), cb.asc(unit.get("id")));
+            var content = entityManager.createQuery(cq)
+                    .setFirstResult((int) pageable.getOffset())
+                    .setMaxResults(PAGE_SIZE)
+                    .getResultList()
+                    .stream()
+                    .map(SearchQueryCachingBenchmark::toResponse)
+                    .toList();
+
+            var countQuery = cb.createQuery(Long.class);
+            var countRoot = countQuery.from(Unit.class);
+            countQuery.select(cb.count(countRoot)).where(predicates(cb, countQuery, countRoot));
+            var total = entityManager.createQuery(countQuery).getSingleResult();
+            return new PageImpl<>(content, pageable, total);
+        });
+    }
+
+    private static UnitResponse toResponse(Unit unit) {
+        return new UnitResponse(unit.getId(), unit.getRooms(), unit.getType(), unit.getFloor(), unit.getDescription(),
+                unit.getBaseCost(), unit.getBaseCost().multiply(MARKUP).setScale(2, RoundingMode.HALF_UP),
+                unit.getCreatedAt());
+    }
+
+    private Predicate[] predicates(CriteriaBuilder cb, CriteriaQuery<?> query, Root<Unit> unit) {
+        var subquery = query.subquery(Long.class);
+        var booking = subquery.from(Booking.class);
+        subquery.select(cb.literal(1L)).where(
+                cb.equal(booking.get("unit"), unit),
+                cb.notEqual(booking.get("status"), cb.literal(BookingStatus.CANCELLED)),
+                cb.greaterThanOrEqualTo(booking.get("endDate"), start),
+                cb.lessThanOrEqualTo(booking.get("startDate"), end));
+        return new Predicate[]{
+                cb.equal(unit.get("type"), UnitType.FLAT),
+                cb.greaterThanOrEqualTo(unit.get("baseCost"), MIN_COST),
+                cb.lessThanOrEqualTo(unit.get("baseCost"), MAX_COST),
+                cb.not(cb.exists(subquery))};
+    }
+}
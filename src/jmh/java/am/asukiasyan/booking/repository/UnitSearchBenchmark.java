@@ -0,0 +1,113 @@
+package am.asukiasyan.booking.repository;
+
+import am.asukiasyan.booking.BenchmarkContext;
+import am.asukiasyan.booking.dto.UnitResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code UnitRepositoryImpl} search with an availability window, bypassing the search result cache. Offset pages are
+ * measured with an exact total and, for the first page, with the default capped count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UnitSearchBenchmark {
+
+    private static final int SEEDED_DAYS = 30;
+    private static final int PAGE_SIZE = 20;
+    private static final BigDecimal MARKUP = new BigDecimal("1.15");
+    private static final int COUNT_CAP = 1000;
+
+    @Param({"1000", "10000"})
+    private int unitCount;
+
+    @Param({"0.1", "0.5"})
+    private double bookingDensity;
+
+    private BenchmarkContext context;
+    private UnitRepository unitRepository;
+    private TransactionTemplate readOnly;
+    private LocalDate start;
+    private LocalDate end;
+    private int lastPage;
+    private UnitResponse middleUnit;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        context.seed(unitCount, bookingDensity, SEEDED_DAYS);
+        unitRepository = context.bean(UnitRepository.class);
+        readOnly = new TransactionTemplate(context.bean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        start = LocalDate.now().plusDays(BenchmarkContext.STAY_DAYS);
+        end = start.plusDays(1);
+
+        var firstPage = searchPage(0);
+        lastPage = Math.max(firstPage.getTotalPages() - 1, 0);
+        var middle = searchPage(lastPage / 2).getContent();
+        middleUnit = middle.getLast();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<UnitResponse> offsetFirstPage() {
+        return searchPage(0);
+    }
+
+    @Benchmark
+    public Page<UnitResponse> offsetLastPage() {
+        return searchPage(lastPage);
+    }
+
+    @Benchmark
+    public Page<UnitResponse> offsetFirstPageCappedCount() {
+        return readOnly.execute(status -> {
+            var pageable = PageRequest.of(0, PAGE_SIZE, Sort.by("baseCost", "id"));
+            var content = unitRepository.search(null, null, null, null, null, start, end, true, pageable, MARKUP);
+            var total = unitRepository.countMatchingUpTo(null, null, null, null, null, start, end, true, COUNT_CAP + 1);
+            return new PageImpl<>(content, pageable, Math.min(total, COUNT_CAP));
+        });
+    }
+
+    @Benchmark
+    public List<UnitResponse> keysetPageFromMiddle() {
+        return readOnly.execute(status -> unitRepository.searchAfter(null, null, null, null, null, start, end, true,
+                Sort.Order.asc("baseCost"), middleUnit.baseCost(), middleUnit.id(), PAGE_SIZE + 1, MARKUP));
+    }
+
+    /**
+     * Page with an exact total.
+     */
+    private Page<UnitResponse> searchPage(int page) {
+        return readOnly.execute(status -> {
+            var pageable = PageRequest.of(page, PAGE_SIZE, Sort.by("baseCost", "id"));
+            var content = unitRepository.search(null, null, null, null, null, start, end, true, pageable, MARKUP);
+            var total = unitRepository.countMatching(null, null, null, null, null, start, end, true);
+            return new PageImpl<>(content, pageable, total);
+        });
+    }
+}
@@ -0,0 +1,54 @@
+package am.asukiasyan.booking.service;
+
+import am.asukiasyan.booking.BenchmarkContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-day availability counters: a three-day booking and its release, and reads through the near cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AvailabilityBenchmark {
+
+    private BenchmarkContext context;
+    private AvailabilityService availabilityService;
+    private LocalDate start;
+    private LocalDate end;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        availabilityService = context.bean(AvailabilityService.class);
+        availabilityService.rollOver();
+        start = LocalDate.now().plusDays(7);
+        end = start.plusDays(BenchmarkContext.STAY_DAYS - 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void decreaseAndIncrease() {
+        availabilityService.decrease(start, end);
+        availabilityService.increase(start, end);
+    }
+
+    @Benchmark
+    public int getAvailableUnits() {
+        return availabilityService.getAvailableUnits(start);
+    }
+}
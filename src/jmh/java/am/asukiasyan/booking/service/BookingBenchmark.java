@@ -0,0 +1,65 @@
+package am.asukiasyan.booking.service;
+
+import am.asukiasyan.booking.BenchmarkContext;
+import am.asukiasyan.booking.dto.BookingRequest;
+import am.asukiasyan.booking.dto.BookingResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@code BookingService.createBooking}: occupancy check, insert under the exclusion constraint, payment,
+ * audit event and availability update. Every invocation books a fresh, non-overlapping stay after the seeded window.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookingBenchmark {
+
+    private static final int SEEDED_DAYS = 60;
+
+    @Param({"1000", "10000"})
+    private int unitCount;
+
+    @Param({"0.1", "0.5"})
+    private double bookingDensity;
+
+    private BenchmarkContext context;
+    private BookingService bookingService;
+    private List<Long> unitIds;
+    private LocalDate firstFreeDay;
+    private long invocation;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        unitIds = context.seed(unitCount, bookingDensity, SEEDED_DAYS);
+        bookingService = context.bean(BookingService.class);
+        firstFreeDay = LocalDate.now().plusDays(SEEDED_DAYS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BookingResponse createBooking() {
+        var n = invocation++;
+        var unitId = unitIds.get((int) (n % unitIds.size()));
+        var start = firstFreeDay.plusDays(n / unitIds.size() * BenchmarkContext.STAY_DAYS);
+        return bookingService.createBooking(
+                new BookingRequest(unitId, 1L, start, start.plusDays(BenchmarkContext.STAY_DAYS - 1)));
+    }
+}
@@ -0,0 +1,31 @@
+package am.asukiasyan.booking.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MarkupBenchmark {
+
+    private final UnitService unitService = new UnitService(null, null, null, null);
+    private final BigDecimal baseCost = new BigDecimal("123.45");
+    private final BigDecimal finalCost = new BigDecimal("141.97");
+
+    @Benchmark
+    public BigDecimal addMarkup() {
+        return unitService.addMarkup(baseCost);
+    }
+
+    @Benchmark
+    public BigDecimal adjustToBase() {
+        return unitService.adjustToBase(finalCost);
+    }
+}
@@ -0,0 +1,82 @@
+package am.asukiasyan.booking.web;
+
+import am.asukiasyan.booking.BenchmarkContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code GET /units} over HTTP from {@value #CLIENTS} concurrent clients, with the application on platform threads
+ * (Tomcat's default pool) or in the {@code virtual-threads} profile. Each request does a database search with an
+ * availability window and is not served from the search cache. Compare ops/s and the p99 of the sample-time mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(ThreadingModeBenchmark.CLIENTS)
+public class ThreadingModeBenchmark {
+
+    static final int CLIENTS = 2_000;
+
+    private static final int UNIT_COUNT = 10_000;
+    private static final int SEEDED_DAYS = 30;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    private BenchmarkContext context;
+    private HttpClient client;
+    private String searchUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = "virtual".equals(threads)
+                ? BenchmarkContext.startServer("--spring.profiles.active=virtual-threads", "--booking.search.cache.max-weight=0")
+                : BenchmarkContext.startServer("--booking.search.cache.max-weight=0");
+        context.seed(UNIT_COUNT, 0.3, SEEDED_DAYS);
+        client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        searchUrl = "http://localhost:" + context.port() + "/api/v1/units";
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int search() throws IOException, InterruptedException {
+        var random = ThreadLocalRandom.current();
+        var start = LocalDate.now().plusDays(random.nextInt(SEEDED_DAYS - BenchmarkContext.STAY_DAYS));
+        var uri = URI.create(searchUrl + "?rooms=" + random.nextInt(1, 6)
+                + "&startDate=" + start + "&endDate=" + start.plusDays(BenchmarkContext.STAY_DAYS - 1)
+                + "&page=" + random.nextInt(5) + "&sortBy=baseCost");
+        var response = client.send(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET /units returned " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
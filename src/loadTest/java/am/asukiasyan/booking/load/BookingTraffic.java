@@ -0,0 +1,120 @@
+package am.asukiasyan.booking.load;
+
+import am.asukiasyan.booking.load.LoadReport.Outcome;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * One virtual user's request mix: mostly searches and availability reads, and booking attempts that are then paid,
+ * cancelled or left to expire. A share of the booking attempts targets a few hot units over a short date range.
+ */
+final class BookingTraffic {
+
+    private static final int SEARCH_WEIGHT = 60;
+    private static final int AVAILABILITY_WEIGHT = 15;
+    private static final double PAY_SHARE = 0.5;
+    private static final double CANCEL_SHARE = 0.2;
+    private static final int HOT_DAYS = 7;
+    private static final int CONFLICT = 409;
+
+    private final HttpClient client;
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final LoadProfile profile;
+    private final List<Long> unitIds;
+    private final Supplier<LoadReport> report;
+
+    BookingTraffic(HttpClient client,
+                   ObjectMapper objectMapper,
+                   String baseUrl,
+                   LoadProfile profile,
+                   List<Long> unitIds,
+                   Supplier<LoadReport> report) {
+        this.client = client;
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl;
+        this.profile = profile;
+        this.unitIds = unitIds;
+        this.report = report;
+    }
+
+    void next() throws InterruptedException {
+        var random = ThreadLocalRandom.current();
+        var roll = random.nextInt(100);
+        if (roll < SEARCH_WEIGHT) {
+            search(random);
+        } else if (roll < SEARCH_WEIGHT + AVAILABILITY_WEIGHT) {
+            availability(random);
+        } else {
+            book(random);
+        }
+    }
+
+    private void search(ThreadLocalRandom random) throws InterruptedException {
+        var start = LocalDate.now().plusDays(random.nextInt(profile.bookingDays()));
+        var query = "?rooms=" + random.nextInt(1, 6)
+                + "&startDate=" + start + "&endDate=" + start.plusDays(random.nextInt(1, 4))
+                + "&sortBy=baseCost&page=" + random.nextInt(3);
+        send(Operation.SEARCH, HttpRequest.newBuilder(URI.create(baseUrl + "/units" + query)).GET());
+    }
+
+    private void availability(ThreadLocalRandom random) throws InterruptedException {
+        var date = LocalDate.now().plusDays(random.nextInt(30));
+        send(Operation.AVAILABILITY, HttpRequest.newBuilder(URI.create(baseUrl + "/stats/availability?date=" + date)).GET());
+    }
+
+    private void book(ThreadLocalRandom random) throws InterruptedException {
+        var hot = random.nextDouble() < profile.hotShare();
+        var unitId = hot
+                ? unitIds.get(random.nextInt(Math.min(profile.hotUnits(), unitIds.size())))
+                : unitIds.get(random.nextInt(unitIds.size()));
+        var start = LocalDate.now().plusDays(1 + random.nextInt(hot ? HOT_DAYS : profile.bookingDays()));
+        var body = """
+                {"unitId":%d,"userId":%d,"startDate":"%s","endDate":"%s"}
+                """.formatted(unitId, random.nextInt(1, 3), start, start.plusDays(random.nextInt(3)));
+        var created = send(Operation.CREATE, HttpRequest.newBuilder(URI.create(baseUrl + "/bookings"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)));
+        if (created == null) {
+            return;
+        }
+        var bookingId = created.path("id").asLong();
+        var next = random.nextDouble();
+        if (next < PAY_SHARE) {
+            send(Operation.PAY, HttpRequest.newBuilder(URI.create(baseUrl + "/bookings/" + bookingId + "/pay"))
+                    .POST(HttpRequest.BodyPublishers.noBody()));
+        } else if (next < PAY_SHARE + CANCEL_SHARE) {
+            send(Operation.CANCEL, HttpRequest.newBuilder(URI.create(baseUrl + "/bookings/" + bookingId + "/cancel"))
+                    .POST(HttpRequest.BodyPublishers.noBody()));
+        }
+    }
+
+    /**
+     * Records every failure as an error of the operation, so one bad response cannot end the virtual user's loop.
+     *
+     * @return the parsed body of a successful response, otherwise {@code null}
+     */
+    private JsonNode send(Operation operation, HttpRequest.Builder request) throws InterruptedException {
+        var started = System.nanoTime();
+        try {
+            var response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+            var status = response.statusCode();
+            var outcome = status < 300 ? Outcome.OK : status == CONFLICT ? Outcome.CONFLICT : Outcome.ERROR;
+            report.get().record(operation, System.nanoTime() - started, outcome);
+            return outcome == Outcome.OK ? objectMapper.readTree(response.body()) : null;
+        } catch (IOException | RuntimeException ex) {
+            report.get().record(operation, System.nanoTime() - started, Outcome.ERROR);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package am.asukiasyan.booking.load;
+
+import java.time.Duration;
+
+/**
+ * Load test settings, read from {@code load.*} system properties ({@code ./gradlew loadTest -Pload.clients=500}).
+ *
+ * @param clients        concurrent virtual users, each issuing one request at a time
+ * @param warmUp         traffic sent before measurement starts
+ * @param duration       measured traffic
+ * @param unitCount      units seeded in addition to the changelog seed data
+ * @param bookingDensity share of seeded days that are already booked
+ * @param bookingDays    days ahead that new bookings are spread over
+ * @param hotUnits       number of units that receive {@code hotShare} of all booking attempts
+ * @param hotShare       share of booking attempts aimed at the hot units, to reproduce contention on popular units
+ * @param virtualThreads whether the application runs with the {@code virtual-threads} profile
+ */
+record LoadProfile(int clients,
+                   Duration warmUp,
+                   Duration duration,
+                   int unitCount,
+                   double bookingDensity,
+                   int bookingDays,
+                   int hotUnits,
+                   double hotShare,
+                   boolean virtualThreads) {
+
+    static LoadProfile fromSystemProperties() {
+        return new LoadProfile(
+                Integer.getInteger("load.clients", 200),
+                Duration.ofSeconds(Long.getLong("load.warmUpSeconds", 15)),
+                Duration.ofSeconds(Long.getLong("load.durationSeconds", 60)),
+                Integer.getInteger("load.units", 5_000),
+                Double.parseDouble(System.getProperty("load.bookingDensity", "0.3")),
+                Integer.getInteger("load.bookingDays", 60),
+                Integer.getInteger("load.hotUnits", 5),
+                Double.parseDouble(System.getProperty("load.hotShare", "0.2")),
+                Boolean.getBoolean("load.virtualThreads"));
+    }
+}
@@ -0,0 +1,85 @@
+package am.asukiasyan.booking.load;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency and outcome counts per {@link Operation}. Recording is thread safe and does not block.
+ */
+final class LoadReport {
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final Map<Operation, Timer> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, Map<Outcome, Counter>> outcomes = new EnumMap<>(Operation.class);
+
+    enum Outcome {
+        OK,
+        CONFLICT,
+        ERROR
+    }
+
+    LoadReport(Duration window) {
+        for (var operation : Operation.values()) {
+            latencies.put(operation, Timer.builder("load." + operation.name().toLowerCase(Locale.ROOT))
+                    .publishPercentiles(PERCENTILES)
+                    .percentilePrecision(2)
+                    .distributionStatisticExpiry(window.plusMinutes(1))
+                    .distributionStatisticBufferLength(1)
+                    .register(registry));
+            Map<Outcome, Counter> counters = new EnumMap<>(Outcome.class);
+            for (var outcome : Outcome.values()) {
+                counters.put(outcome, registry.counter("load.outcomes",
+                        "operation", operation.name(), "outcome", outcome.name()));
+            }
+            outcomes.put(operation, counters);
+        }
+    }
+
+    void record(Operation operation, long nanos, Outcome outcome) {
+        latencies.get(operation).record(nanos, TimeUnit.NANOSECONDS);
+        outcomes.get(operation).get(outcome).increment();
+    }
+
+    String format(LoadProfile profile, Duration elapsed) {
+        var seconds = elapsed.toMillis() / 1000.0;
+        var out = new StringBuilder();
+        out.append(String.format(Locale.ROOT, "clients=%d duration=%.1fs units=%d hotUnits=%d hotShare=%.2f virtualThreads=%s%n",
+                profile.clients(), seconds, profile.unitCount(), profile.hotUnits(), profile.hotShare(),
+                profile.virtualThreads()));
+        out.append(String.format(Locale.ROOT, "%-13s %9s %9s %9s %9s %9s %9s %9s %8s%n",
+                "operation", "requests", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "conflict", "error"));
+        long total = 0;
+        for (var operation : Operation.values()) {
+            var snapshot = latencies.get(operation).takeSnapshot();
+            var count = snapshot.count();
+            total += count;
+            var values = snapshot.percentileValues();
+            out.append(String.format(Locale.ROOT, "%-13s %9d %9.1f %9.1f %9.1f %9.1f %9.1f %8.2f%% %7.2f%%%n",
+                    operation, count, count / seconds,
+                    millis(values, 0), millis(values, 1), millis(values, 2),
+                    snapshot.max(TimeUnit.MILLISECONDS),
+                    share(operation, Outcome.CONFLICT, count), share(operation, Outcome.ERROR, count)));
+        }
+        out.append(String.format(Locale.ROOT, "total %d requests, %.1f req/s%n", total, total / seconds));
+        return out.toString();
+    }
+
+    private double millis(ValueAtPercentile[] values, int index) {
+        return index < values.length ? values[index].value(TimeUnit.MILLISECONDS) : Double.NaN;
+    }
+
+    private double share(Operation operation, Outcome outcome, long count) {
+        return count == 0 ? 0 : 100.0 * outcomes.get(operation).get(outcome).count() / count;
+    }
+}
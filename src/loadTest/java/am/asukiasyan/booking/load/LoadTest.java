@@ -0,0 +1,87 @@
+package am.asukiasyan.booking.load;
+
+import am.asukiasyan.booking.BenchmarkContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Starts the application on Postgres and Redis Testcontainers, seeds it, and replays {@link BookingTraffic} from
+ * {@link LoadProfile#clients()} virtual users in a closed loop. After the warm-up the report is reset, and after the
+ * measured window throughput, latency percentiles and conflict rates per operation are printed and written to
+ * {@code build/results/loadtest}.
+ */
+public final class LoadTest {
+
+    private static final Path RESULTS = Path.of("build", "results", "loadtest");
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        var profile = LoadProfile.fromSystemProperties();
+        var appArgs = profile.virtualThreads() ? new String[]{"--spring.profiles.active=virtual-threads"} : new String[0];
+        try (var context = BenchmarkContext.startServer(appArgs);
+             var client = HttpClient.newBuilder()
+                     .executor(Executors.newVirtualThreadPerTaskExecutor())
+                     .connectTimeout(Duration.ofSeconds(10))
+                     .build()) {
+            var unitIds = context.seed(profile.unitCount(), profile.bookingDensity(), profile.bookingDays());
+            var report = new AtomicReference<>(new LoadReport(profile.warmUp()));
+            var traffic = new BookingTraffic(client, new ObjectMapper(), "http://localhost:" + context.port() + "/api/v1", profile,
+                    unitIds, report::get);
+
+            var text = run(profile, traffic, report);
+            System.out.print(text);
+            write(text);
+        }
+    }
+
+    private static String run(LoadProfile profile, BookingTraffic traffic, AtomicReference<LoadReport> report)
+            throws InterruptedException, ExecutionException {
+        var deadline = System.nanoTime() + profile.warmUp().plus(profile.duration()).toNanos();
+        List<Future<?>> loops = new ArrayList<>();
+        String text;
+        try (var users = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < profile.clients(); i++) {
+                loops.add(users.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        traffic.next();
+                    }
+                    return null;
+                }));
+            }
+            Thread.sleep(profile.warmUp());
+            var measured = new LoadReport(profile.duration());
+            report.set(measured);
+            var started = System.nanoTime();
+            Thread.sleep(profile.duration());
+            var elapsed = Duration.ofNanos(System.nanoTime() - started);
+            text = measured.format(profile, elapsed);
+        }
+        // a virtual user that died early would silently lower the offered load, so fail the run instead
+        for (var loop : loops) {
+            loop.get();
+        }
+        return text;
+    }
+
+    private static void write(String text) throws IOException {
+        Files.createDirectories(RESULTS);
+        var file = RESULTS.resolve("loadtest-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".txt");
+        Files.writeString(file, text);
+        System.out.println("Report written to " + file.toAbsolutePath());
+    }
+}
@@ -0,0 +1,12 @@
+package am.asukiasyan.booking.load;
+
+/**
+ * Request types replayed by the load test, in report order.
+ */
+enum Operation {
+    SEARCH,
+    AVAILABILITY,
+    CREATE,
+    PAY,
+    CANCEL
+}
@@ -0,0 +1,177 @@
+package am.asukiasyan.booking.archive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Moves bookings that ended before the current month, with their payment, from {@code bookings} into the
+ * {@code bookings_archive} table, which is partitioned by {@code end_date} month. The live table then only holds the
+ * active window, so overlap checks and availability counts do not slow down as history accumulates. Archive partitions
+ * older than the retention are detached and renamed to {@code bookings_archive_yyyy_MM_detached_n}, standalone tables
+ * to be dumped or dropped; a booking of that month archived later gets a fresh partition. Partition DDL runs under
+ * an advisory lock, so instances running the job at the same time do not race on it.
+ */
+@Component
+@Slf4j
+public class BookingArchiver {
+
+    static final String PARTITION_PREFIX = "bookings_archive_";
+    static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private static final String OLDEST_ARCHIVABLE_SQL = "select min(end_date) from bookings where end_date < ?";
+
+    static final String DETACHED_INFIX = "_detached_";
+
+    private static final String PARTITION_LOCK_SQL = "select pg_advisory_xact_lock(hashtext('bookings_archive'))";
+
+    private static final String CREATE_PARTITION_SQL = """
+            create table if not exists %s partition of bookings_archive for values from ('%s') to ('%s')
+            """;
+
+    /**
+     * Copies a chunk of closed bookings into the archive and returns their ids. Rows locked by a running transaction
+     * are skipped and picked up by the next run.
+     */
+    private static final String ARCHIVE_CHUNK_SQL = """
+            with claimed as (
+                select id from bookings
+                where end_date < ?
+                order by id
+                limit ?
+                for update skip locked
+            )
+            insert into bookings_archive (id, unit_id, user_id, start_date, end_date, status, total_cost,
+                                          created_at, updated_at, payment_status, paid_at)
+            select b.id, b.unit_id, b.user_id, b.start_date, b.end_date, b.status, b.total_cost,
+                   b.created_at, b.updated_at, p.status, p.paid_at
+            from bookings b
+            join claimed c on c.id = b.id
+            left join payments p on p.booking_id = b.id
+            returning id
+            """;
+
+    private static final String DELETE_PAYMENTS_SQL = "delete from payments where booking_id = any(?)";
+    private static final String DELETE_BOOKINGS_SQL = "delete from bookings where id = any(?)";
+
+    private static final String PARTITIONS_SQL = """
+            select c.relname from pg_inherits i
+            join pg_class c on c.oid = i.inhrelid
+            join pg_class p on p.oid = i.inhparent
+            where p.relname = 'bookings_archive'
+            """;
+
+    private static final String LAST_DETACHED_SQL = """
+            select coalesce(max(substring(relname from '\\d+$')::int), 0) from pg_class where starts_with(relname, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int retentionMonths;
+
+    public BookingArchiver(JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${booking.archive.batch-size:1000}") int batchSize,
+                           @Value("${booking.archive.retention-months:24}") int retentionMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.retentionMonths = retentionMonths;
+    }
+
+    /**
+     * Archives every booking that ended before the current month, then detaches partitions past the retention.
+     *
+     * @return the number of archived bookings
+     */
+    @Scheduled(cron = "${booking.archive.cron:0 30 1 * * *}")
+    public int archive() {
+        var cutoff = YearMonth.now();
+        createPartitions(cutoff);
+        int archived = 0;
+        int moved;
+        do {
+            moved = archiveChunk(cutoff.atDay(1));
+            archived += moved;
+        } while (moved == batchSize);
+        var detached = detachPartitions(cutoff.minusMonths(retentionMonths));
+        log.info("Archived bookings ended before {} count={} detachedPartitions={}", cutoff, archived, detached);
+        return archived;
+    }
+
+    private void createPartitions(YearMonth cutoff) {
+        var oldest = jdbcTemplate.queryForObject(OLDEST_ARCHIVABLE_SQL, LocalDate.class, Date.valueOf(cutoff.atDay(1)));
+        if (oldest == null) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute(PARTITION_LOCK_SQL);
+            for (var month = YearMonth.from(oldest); month.isBefore(cutoff); month = month.plusMonths(1)) {
+                jdbcTemplate.execute(CREATE_PARTITION_SQL.formatted(partitionName(month), month.atDay(1),
+                        month.plusMonths(1).atDay(1)));
+            }
+        });
+    }
+
+    private int archiveChunk(LocalDate cutoff) {
+        Integer moved = transactionTemplate.execute(status -> {
+            List<Long> ids = jdbcTemplate.queryForList(ARCHIVE_CHUNK_SQL, Long.class, Date.valueOf(cutoff), batchSize);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            deleteByIds(DELETE_PAYMENTS_SQL, ids);
+            deleteByIds(DELETE_BOOKINGS_SQL, ids);
+            return ids.size();
+        });
+        return moved == null ? 0 : moved;
+    }
+
+    private void deleteByIds(String sql, List<Long> ids) {
+        jdbcTemplate.update(sql, ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())));
+    }
+
+    /**
+     * Detaches the partitions whose whole month lies before {@code before} and renames them, so the month's name is
+     * free if a partition for it is needed again.
+     */
+    private int detachPartitions(YearMonth before) {
+        Integer detached = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute(PARTITION_LOCK_SQL);
+            int count = 0;
+            for (var partition : jdbcTemplate.queryForList(PARTITIONS_SQL, String.class)) {
+                var month = YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+                if (month.isBefore(before)) {
+                    var renamed = detachedName(partition);
+                    jdbcTemplate.execute("alter table bookings_archive detach partition " + partition);
+                    jdbcTemplate.execute("alter table " + partition + " rename to " + renamed);
+                    log.info("Detached archive partition {} as {}", partition, renamed);
+                    count++;
+                }
+            }
+            return count;
+        });
+        return detached == null ? 0 : detached;
+    }
+
+    /**
+     * Numbers the detached tables of a month, since the same month can be detached again after late archiving.
+     */
+    private String detachedName(String partition) {
+        var last = jdbcTemplate.queryForObject(LAST_DETACHED_SQL, Integer.class, partition + DETACHED_INFIX);
+        return partition + DETACHED_INFIX + (last == null ? 1 : last + 1);
+    }
+
+    static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+    }
+}
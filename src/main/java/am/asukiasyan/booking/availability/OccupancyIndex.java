@@ -0,0 +1,177 @@
+package am.asukiasyan.booking.availability;
+
+import am.asukiasyan.booking.repository.projection.BookingSpan;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory per-unit occupancy bitmap over a rolling horizon of {@code horizonDays} starting at the origin day.
+ * Answers overlap checks only for ranges inside the horizon and only once it has been loaded.
+ */
+public class OccupancyIndex {
+
+    private final int horizonDays;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<Long, UnitCalendar> calendars = new ConcurrentHashMap<>();
+    private long originEpochDay;
+    private boolean ready;
+
+    public OccupancyIndex(int horizonDays) {
+        if (horizonDays <= 0) {
+            throw new IllegalArgumentException("horizonDays must be positive");
+        }
+        this.horizonDays = horizonDays;
+    }
+
+    public int getHorizonDays() {
+        return horizonDays;
+    }
+
+    public boolean covers(LocalDate start, LocalDate end) {
+        lock.readLock().lock();
+        try {
+            return ready
+                    && start.toEpochDay() >= originEpochDay
+                    && end.toEpochDay() < originEpochDay + horizonDays;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isOccupied(Long unitId, LocalDate start, LocalDate end) {
+        lock.readLock().lock();
+        try {
+            var calendar = calendars.get(unitId);
+            return calendar != null && calendar.isOccupied(offset(start), offset(end));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Marks the range as occupied unless any of its days is already taken.
+     */
+    public boolean tryOccupy(Long unitId, LocalDate start, LocalDate end) {
+        lock.readLock().lock();
+        try {
+            return calendarOf(unitId).tryOccupy(offset(start), offset(end));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void occupy(Long unitId, LocalDate start, LocalDate end) {
+        lock.readLock().lock();
+        try {
+            var from = clippedOffset(start);
+            var to = clippedOffset(end);
+            if (from <= to && !isOutside(start, end)) {
+                calendarOf(unitId).occupy(from, to);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void release(Long unitId, LocalDate start, LocalDate end) {
+        lock.readLock().lock();
+        try {
+            var calendar = calendars.get(unitId);
+            if (calendar != null && !isOutside(start, end)) {
+                calendar.release(clippedOffset(start), clippedOffset(end));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Set<Long> occupiedUnits(LocalDate start, LocalDate end) {
+        lock.readLock().lock();
+        try {
+            var from = offset(start);
+            var to = offset(end);
+            Set<Long> occupied = new HashSet<>();
+            calendars.forEach((unitId, calendar) -> {
+                if (calendar.isOccupied(from, to)) {
+                    occupied.add(unitId);
+                }
+            });
+            return occupied;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the whole index with the given spans, anchored at {@code origin}.
+     */
+    public void reset(LocalDate origin, Collection<BookingSpan> spans) {
+        lock.writeLock().lock();
+        try {
+            calendars = new ConcurrentHashMap<>();
+            originEpochDay = origin.toEpochDay();
+            spans.forEach(span -> occupy(span.unitId(), span.startDate(), span.endDate()));
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Moves the origin forward to {@code today}, dropping past days.
+     *
+     * @return the first day that was not covered before the move, or {@code null} if the origin did not change
+     */
+    public LocalDate advanceTo(LocalDate today) {
+        lock.writeLock().lock();
+        try {
+            var shift = today.toEpochDay() - originEpochDay;
+            if (!ready || shift <= 0) {
+                return null;
+            }
+            var previousEnd = LocalDate.ofEpochDay(originEpochDay + horizonDays);
+            if (shift >= horizonDays) {
+                calendars.clear();
+            } else {
+                calendars.values().forEach(calendar -> calendar.shift((int) shift));
+                calendars.values().removeIf(UnitCalendar::isEmpty);
+            }
+            originEpochDay = today.toEpochDay();
+            return previousEnd.isAfter(today) ? previousEnd : today;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public LocalDate horizonEnd() {
+        lock.readLock().lock();
+        try {
+            return LocalDate.ofEpochDay(originEpochDay + horizonDays - 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private UnitCalendar calendarOf(Long unitId) {
+        return calendars.computeIfAbsent(unitId, id -> new UnitCalendar());
+    }
+
+    private boolean isOutside(LocalDate start, LocalDate end) {
+        return end.toEpochDay() < originEpochDay || start.toEpochDay() >= originEpochDay + horizonDays;
+    }
+
+    private int offset(LocalDate date) {
+        return (int) (date.toEpochDay() - originEpochDay);
+    }
+
+    private int clippedOffset(LocalDate date) {
+        return (int) Math.max(0, Math.min(horizonDays - 1, date.toEpochDay() - originEpochDay));
+    }
+}
@@ -0,0 +1,123 @@
+package am.asukiasyan.booking.availability;
+
+import am.asukiasyan.booking.availability.OccupancySync.Change;
+import am.asukiasyan.booking.repository.BookingRepository;
+import am.asukiasyan.booking.util.TransactionHooks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+/**
+ * Maintains the {@link OccupancyIndex}, which answers the overlap check of single bookings. The database stays the
+ * final authority: the exclusion constraint rejects an insert the index let through, and an index hit is confirmed
+ * with a query before the booking is rejected. Committed changes reach other instances through {@link OccupancySync};
+ * the index is also reloaded every {@code booking.occupancy.resync-interval-ms} to repair missed messages.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OccupancyService {
+
+    private final OccupancyIndex index;
+    private final OccupancySync sync;
+    private final BookingRepository bookingRepository;
+
+    /**
+     * Loads from the primary: the index filters searches, so it must not start from a lagging replica.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void warmUp() {
+        var loaded = load();
+        log.info("Occupancy index loaded bookings={} horizonDays={}", loaded, index.getHorizonDays());
+    }
+
+    /**
+     * Reloads the whole index from the primary, dropping changes of other instances that were never delivered.
+     */
+    @Scheduled(fixedDelayString = "${booking.occupancy.resync-interval-ms:60000}",
+            initialDelayString = "${booking.occupancy.resync-interval-ms:60000}")
+    @Transactional
+    public void resync() {
+        var loaded = load();
+        log.debug("Occupancy index resynced bookings={}", loaded);
+    }
+
+    private int load() {
+        var today = LocalDate.now();
+        var spans = bookingRepository.findActiveSpans(today, today.plusDays(index.getHorizonDays() - 1L));
+        index.reset(today, spans);
+        return spans.size();
+    }
+
+    /**
+     * Rolls the horizon forward each midnight and loads bookings for the newly covered days.
+     */
+    @Scheduled(cron = "0 0 0 * * *")
+    @Transactional
+    public void rollOver() {
+        var firstNewDay = index.advanceTo(LocalDate.now());
+        if (firstNewDay == null) {
+            return;
+        }
+        var horizonEnd = index.horizonEnd();
+        var spans = bookingRepository.findActiveSpans(firstNewDay, horizonEnd);
+        spans.forEach(span -> index.occupy(span.unitId(), span.startDate(), span.endDate()));
+        log.info("Occupancy index rolled over to {} loaded={}", horizonEnd, spans.size());
+    }
+
+    /**
+     * Claims the range for the unit inside the current transaction if it looks free. A miss in the index is accepted
+     * without a query; a booking of another instance that has not reached this index yet is caught by the exclusion
+     * constraint on insert. A hit is confirmed against the database before rejecting, since it may be a release
+     * that has not been synced yet or a claim of a transaction that will roll back. Ranges outside the horizon are
+     * always checked against the database.
+     */
+    public boolean reserve(Long unitId, LocalDate start, LocalDate end) {
+        if (index.covers(start, end) && index.tryOccupy(unitId, start, end)) {
+            TransactionHooks.afterRollback(() -> index.release(unitId, start, end));
+            occupyOnCommit(unitId, start, end);
+            return true;
+        }
+        if (bookingRepository.existsActiveBooking(unitId, start, end)) {
+            return false;
+        }
+        claim(unitId, start, end);
+        return true;
+    }
+
+    /**
+     * Claims a range the caller has already checked against the database, e.g. with one query for a whole batch.
+     * A claim that found its days free is dropped if the transaction rolls back. On commit the days are set in any
+     * case, which also covers a reload or a rolled back claim that cleared them in between, and the change is
+     * published to the other instances.
+     */
+    public void claim(Long unitId, LocalDate start, LocalDate end) {
+        // days already set belong to another booking, possibly one that has not committed yet; only a claim that set
+        // every day itself may clear them on rollback
+        if (index.covers(start, end) && index.tryOccupy(unitId, start, end)) {
+            TransactionHooks.afterRollback(() -> index.release(unitId, start, end));
+        }
+        occupyOnCommit(unitId, start, end);
+    }
+
+    public void release(Long unitId, LocalDate start, LocalDate end) {
+        TransactionHooks.afterCommit(() -> {
+            index.release(unitId, start, end);
+            sync.publish(Change.RELEASE, unitId, start, end);
+        });
+    }
+
+    private void occupyOnCommit(Long unitId, LocalDate start, LocalDate end) {
+        TransactionHooks.afterCommit(() -> {
+            index.occupy(unitId, start, end);
+            sync.publish(Change.OCCUPY, unitId, start, end);
+        });
+    }
+}
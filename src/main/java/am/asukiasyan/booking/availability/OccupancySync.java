@@ -0,0 +1,76 @@
+package am.asukiasyan.booking.availability;
+
+import am.asukiasyan.booking.cache.UnitSearchCache;
+import am.asukiasyan.booking.repository.projection.BookingSpan;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keeps the occupancy indexes of all instances in step. Committed claims and releases are published on
+ * {@link #CHANNEL} as {@code instanceId,change,unitId,start,end} and applied by every other instance, which also
+ * evicts the cached searches whose window overlaps the booked days. Pub/sub drops
+ * messages while a subscriber is disconnected, so the index is also reloaded periodically by
+ * {@link OccupancyService#resync()}.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class OccupancySync implements MessageListener {
+
+    public static final String CHANNEL = "occupancy:changed";
+
+    public enum Change {
+        OCCUPY, RELEASE
+    }
+
+    private final OccupancyIndex index;
+    private final UnitSearchCache unitSearchCache;
+    private final StringRedisTemplate redisTemplate;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    /**
+     * Runs after commit, so a Redis failure is logged rather than thrown; the periodic reload repairs the peers.
+     */
+    public void publish(Change change, Long unitId, LocalDate start, LocalDate end) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, String.join(",", instanceId, change.name(), unitId.toString(),
+                    start.toString(), end.toString()));
+        } catch (RuntimeException ex) {
+            log.warn("Occupancy change not published change={} unitId={} start={} end={}: {}",
+                    change, unitId, start, end, ex.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        var body = new String(message.getBody(), StandardCharsets.UTF_8);
+        var fields = body.split(",");
+        if (fields.length != 5) {
+            log.warn("Unexpected occupancy change message={}", body);
+            return;
+        }
+        if (instanceId.equals(fields[0])) {
+            return;
+        }
+        try {
+            var unitId = Long.valueOf(fields[2]);
+            var start = LocalDate.parse(fields[3]);
+            var end = LocalDate.parse(fields[4]);
+            switch (Change.valueOf(fields[1])) {
+                case OCCUPY -> index.occupy(unitId, start, end);
+                case RELEASE -> index.release(unitId, start, end);
+            }
+            unitSearchCache.evictBookings(List.of(new BookingSpan(null, unitId, start, end)));
+            log.debug("Occupancy change applied message={}", body);
+        } catch (RuntimeException ex) {
+            log.warn("Unexpected occupancy change message={}", body);
+        }
+    }
+}
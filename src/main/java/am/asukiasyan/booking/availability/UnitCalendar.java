@@ -0,0 +1,78 @@
+package am.asukiasyan.booking.availability;
+
+import java.util.BitSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Occupied days of a single unit. Bit {@code i} stands for {@code origin + i} days of the owning index. Guarded by a
+ * {@link ReentrantLock} rather than {@code synchronized}, so contended virtual threads park instead of pinning their
+ * carrier thread.
+ */
+class UnitCalendar {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private BitSet days = new BitSet();
+
+    boolean isOccupied(int from, int to) {
+        lock.lock();
+        try {
+            return occupied(from, to);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean tryOccupy(int from, int to) {
+        lock.lock();
+        try {
+            if (occupied(from, to)) {
+                return false;
+            }
+            days.set(from, to + 1);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void occupy(int from, int to) {
+        lock.lock();
+        try {
+            days.set(from, to + 1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void release(int from, int to) {
+        lock.lock();
+        try {
+            days.clear(from, to + 1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void shift(int offset) {
+        lock.lock();
+        try {
+            days = days.get(offset, Math.max(offset, days.length()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean isEmpty() {
+        lock.lock();
+        try {
+            return days.isEmpty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean occupied(int from, int to) {
+        int next = days.nextSetBit(from);
+        return next >= 0 && next <= to;
+    }
+}
@@ -0,0 +1,41 @@
+package am.asukiasyan.booking.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Evicts near-cached availability counts when {@link RedisAvailabilityCache} publishes a change.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class AvailabilityInvalidationListener implements MessageListener {
+
+    private final Cache cache;
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        var body = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (RedisAvailabilityCache.ALL_DAYS.equals(body)) {
+            cache.clear();
+            log.debug("Availability near cache cleared");
+            return;
+        }
+        for (var date : body.split(",")) {
+            try {
+                cache.evict(LocalDate.parse(date));
+            } catch (DateTimeParseException ex) {
+                log.warn("Unexpected availability change message={}, clearing near cache", body);
+                cache.clear();
+                return;
+            }
+        }
+        log.debug("Availability near cache evicted dates={}", body);
+    }
+}
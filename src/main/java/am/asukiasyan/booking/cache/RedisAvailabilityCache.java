@@ -1,45 +1,151 @@
 package am.asukiasyan.booking.cache;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.redis.core.HashOperations;
 import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
 
-public record RedisAvailabilityCache(StringRedisTemplate redisTemplate, ValueOperations<String, String> ops) {
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
-    private static final String KEY = "availability:count";
+/**
+ * Available unit counts per day, kept as one Redis hash keyed by ISO date. Every change publishes the affected dates
+ * (comma separated, or {@code *} for all days) on {@link #CHANNEL} so that near caches can drop their copies. Every
+ * round trip is timed as {@value #METRIC} tagged with the operation.
+ */
+public record RedisAvailabilityCache(StringRedisTemplate redisTemplate,
+                                     HashOperations<String, String, String> ops,
+                                     MeterRegistry meterRegistry) {
 
-    public RedisAvailabilityCache(StringRedisTemplate redisTemplate) {
-        this(redisTemplate, redisTemplate.opsForValue());
+    public static final String CHANNEL = "availability:changed";
+    public static final String ALL_DAYS = "*";
+
+    public static final String METRIC = "booking.redis.availability";
+
+    private static final String KEY = "availability:daily";
+    private static final List<String> KEYS = List.of(KEY);
+
+    private static final RedisScript<Long> ADJUST_IF_PRESENT = RedisScript.of("""
+            local updated = {}
+            for i = 1, #ARGV, 2 do
+                if redis.call('HEXISTS', KEYS[1], ARGV[i]) == 1 then
+                    if redis.call('HINCRBY', KEYS[1], ARGV[i], ARGV[i + 1]) < 0 then
+                        redis.call('HSET', KEYS[1], ARGV[i], 0)
+                    end
+                    table.insert(updated, ARGV[i])
+                end
+            end
+            if #updated > 0 then
+                redis.call('PUBLISH', '%s', table.concat(updated, ','))
+            end
+            return #updated
+            """.formatted(CHANNEL), Long.class);
+
+    private static final RedisScript<Long> ADJUST_ALL = RedisScript.of("""
+            local fields = redis.call('HKEYS', KEYS[1])
+            for _, field in ipairs(fields) do
+                if redis.call('HINCRBY', KEYS[1], field, ARGV[1]) < 0 then
+                    redis.call('HSET', KEYS[1], field, 0)
+                end
+            end
+            if #fields > 0 then
+                redis.call('PUBLISH', '%s', '%s')
+            end
+            return #fields
+            """.formatted(CHANNEL, ALL_DAYS), Long.class);
+
+    private static final RedisScript<Long> INITIALIZE_IF_ABSENT = RedisScript.of("""
+            redis.call('HSETNX', KEYS[1], ARGV[1], ARGV[2])
+            return tonumber(redis.call('HGET', KEYS[1], ARGV[1]))
+            """, Long.class);
+
+    private static final RedisScript<Long> REMOVE_BEFORE = RedisScript.of("""
+            local removed = {}
+            for _, field in ipairs(redis.call('HKEYS', KEYS[1])) do
+                if field < ARGV[1] then
+                    redis.call('HDEL', KEYS[1], field)
+                    table.insert(removed, field)
+                end
+            end
+            if #removed > 0 then
+                redis.call('PUBLISH', '%s', table.concat(removed, ','))
+            end
+            return #removed
+            """.formatted(CHANNEL), Long.class);
+
+    public RedisAvailabilityCache(StringRedisTemplate redisTemplate, MeterRegistry meterRegistry) {
+        this(redisTemplate, redisTemplate.opsForHash(), meterRegistry);
     }
 
-    public int get() {
-        String value = ops.get(KEY);
+    /**
+     * Reads the count for the day with a single HGET, or returns {@code null} when the day has not been initialized.
+     */
+    public Integer find(LocalDate date) {
+        String value = timed("find", () -> ops.get(KEY, date.toString()));
         if (value == null) {
-            return 0;
+            return null;
         }
         try {
             return Integer.parseInt(value);
         } catch (NumberFormatException ignored) {
-            ops.set(KEY, "0");
+            ops.delete(KEY, date.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Atomically applies per-day deltas in one round trip, clamping at zero. Days that have not been initialized are
+     * left alone; they are seeded from the database on first read.
+     *
+     * @return the number of days that were updated
+     */
+    public long adjust(Map<LocalDate, Long> deltas) {
+        if (deltas.isEmpty()) {
             return 0;
         }
+        List<String> args = new ArrayList<>(deltas.size() * 2);
+        deltas.forEach((date, delta) -> {
+            args.add(date.toString());
+            args.add(Long.toString(delta));
+        });
+        Long updated = timed("adjust", () -> redisTemplate.execute(ADJUST_IF_PRESENT, KEYS, args.toArray()));
+        return updated == null ? 0 : updated;
     }
 
-    public void increment() {
-        ops.increment(KEY);
+    /**
+     * Atomically applies the delta to every initialized day in one round trip, clamping at zero.
+     */
+    public long adjustAll(long delta) {
+        Long updated = timed("adjustAll", () -> redisTemplate.execute(ADJUST_ALL, KEYS, Long.toString(delta)));
+        return updated == null ? 0 : updated;
     }
 
-    public void decrement() {
-        Long current = ops.decrement(KEY);
-        if (current != null && current < 0) {
-            ops.set(KEY, "0");
-        }
+    /**
+     * Sets the day's count unless another writer got there first and returns the value that won.
+     */
+    public long initializeIfAbsent(LocalDate date, int value) {
+        Long current = timed("initializeIfAbsent",
+                () -> redisTemplate.execute(INITIALIZE_IF_ABSENT, KEYS, date.toString(), Integer.toString(value)));
+        return current == null ? value : current;
+    }
+
+    public void update(LocalDate date, int newValue) {
+        timed("update", () -> {
+            ops.put(KEY, date.toString(), Integer.toString(newValue));
+            return redisTemplate.convertAndSend(CHANNEL, date.toString());
+        });
     }
 
-    public void update(int newValue) {
-        ops.set(KEY, Integer.toString(newValue));
+    public long removeBefore(LocalDate date) {
+        Long removed = timed("removeBefore", () -> redisTemplate.execute(REMOVE_BEFORE, KEYS, date.toString()));
+        return removed == null ? 0 : removed;
     }
 
-    public boolean hasValue() {
-        return redisTemplate.hasKey(KEY);
+    private <T> T timed(String operation, Supplier<T> call) {
+        return Timer.builder(METRIC).tag("operation", operation).register(meterRegistry).record(call);
     }
 }
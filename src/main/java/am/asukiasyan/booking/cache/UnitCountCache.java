@@ -0,0 +1,28 @@
+package am.asukiasyan.booking.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Recent exact search totals per filter, served as estimates to every page and sort order of the same filters. Writes
+ * do not evict entries, so an estimate can be off by whatever changed within the TTL. Concurrent misses on one filter
+ * share a single count.
+ */
+public class UnitCountCache {
+
+    private final Cache<UnitSearchKey, Long> cache;
+
+    public UnitCountCache(long maxSize, Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public long get(UnitSearchKey key, LongSupplier counter) {
+        return cache.get(key.filterKey(), filter -> counter.getAsLong());
+    }
+}
@@ -0,0 +1,141 @@
+package am.asukiasyan.booking.cache;
+
+import am.asukiasyan.booking.domain.Unit;
+import am.asukiasyan.booking.dto.PageResponse;
+import am.asukiasyan.booking.dto.UnitResponse;
+import am.asukiasyan.booking.repository.projection.BookingSpan;
+import am.asukiasyan.booking.util.TransactionHooks;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * In-process cache of search pages. Memory is capped by weight, one unit per entry plus one per returned row, so a
+ * few large pages cannot crowd out many small ones. Writes evict only the entries whose filters they can change, once
+ * the writing transaction commits. Other instances evict for bookings when their
+ * {@link am.asukiasyan.booking.availability.OccupancySync} receives the change, and pick up new units when the TTL
+ * runs out.
+ * <p>
+ * Evictions are also remembered for {@code replicaStaleness}, so that a page is not stored if it may have been read
+ * before an eviction that affects it: one that ran during the load, or, for a page served by a read replica, one
+ * whose write the replica may not have replayed yet.
+ */
+@Slf4j
+public class UnitSearchCache {
+
+    private final Cache<UnitSearchKey, PageResponse<UnitResponse>> cache;
+    private final Deque<Eviction> recentEvictions = new ConcurrentLinkedDeque<>();
+    private final long replicaStalenessNanos;
+    private final BooleanSupplier servedByReplica;
+
+    private record Eviction(long at, Predicate<UnitSearchKey> affected) {
+    }
+
+    /**
+     * @param replicaStaleness how far a replica serving reads may lag behind the primary
+     * @param servedByReplica  whether the current transaction reads from a replica
+     */
+    public UnitSearchCache(long maxWeight, Duration ttl, Duration replicaStaleness, BooleanSupplier servedByReplica) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((UnitSearchKey key, PageResponse<UnitResponse> page) -> 1 + page.content().size())
+                .expireAfterWrite(ttl)
+                .build();
+        this.replicaStalenessNanos = replicaStaleness.toNanos();
+        this.servedByReplica = servedByReplica;
+    }
+
+    /**
+     * Returns the cached page or loads it. The loaded page is returned either way, but only stored if no eviction
+     * affecting it ran since the data it was read from: the start of the load on the primary, or that minus the
+     * replica staleness on a replica. Checking again after the put catches an eviction that ran in between.
+     */
+    public PageResponse<UnitResponse> get(UnitSearchKey key, Supplier<PageResponse<UnitResponse>> loader) {
+        var cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        var started = System.nanoTime();
+        var loaded = loader.get();
+        var readAsOf = servedByReplica.getAsBoolean() ? started - replicaStalenessNanos : started;
+        if (!evictedSince(key, readAsOf)) {
+            cache.put(key, loaded);
+            if (evictedSince(key, readAsOf)) {
+                cache.invalidate(key);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * A new unit can appear in every search whose attribute filters it passes, whatever the dates.
+     */
+    public void evictUnit(Unit unit) {
+        evictAfterCommit(key -> key.matches(unit));
+    }
+
+    public void evictUnits(Collection<Unit> units) {
+        if (units.isEmpty()) {
+            return;
+        }
+        evictAfterCommit(key -> units.stream().anyMatch(key::matches));
+    }
+
+    /**
+     * Booking or releasing a unit only changes searches with an availability window overlapping the booked days.
+     */
+    public void evictBooking(Unit unit, LocalDate startDate, LocalDate endDate) {
+        evictAfterCommit(key -> key.overlaps(startDate, endDate) && key.matches(unit));
+    }
+
+    /**
+     * For callers that only know the booked days, not the unit attributes.
+     */
+    public void evictBookings(Collection<BookingSpan> spans) {
+        if (spans.isEmpty()) {
+            return;
+        }
+        evictAfterCommit(key -> spans.stream().anyMatch(span -> key.overlaps(span.startDate(), span.endDate())));
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private boolean evictedSince(UnitSearchKey key, long since) {
+        for (var iterator = recentEvictions.descendingIterator(); iterator.hasNext(); ) {
+            var eviction = iterator.next();
+            if (eviction.at() - since < 0) {
+                return false;
+            }
+            if (eviction.affected().test(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void evictAfterCommit(Predicate<UnitSearchKey> affected) {
+        TransactionHooks.afterCommit(() -> {
+            var now = System.nanoTime();
+            recentEvictions.addLast(new Eviction(now, affected));
+            for (var oldest = recentEvictions.peekFirst();
+                 oldest != null && now - oldest.at() > replicaStalenessNanos;
+                 oldest = recentEvictions.peekFirst()) {
+                recentEvictions.remove(oldest);
+            }
+            var before = cache.estimatedSize();
+            cache.asMap().keySet().removeIf(affected);
+            log.debug("Unit search cache evicted {} entries", before - cache.estimatedSize());
+        });
+    }
+}
@@ -0,0 +1,67 @@
+package am.asukiasyan.booking.cache;
+
+import am.asukiasyan.booking.domain.Unit;
+import am.asukiasyan.booking.enums.CountMode;
+import am.asukiasyan.booking.enums.PaginationMode;
+import am.asukiasyan.booking.enums.UnitType;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Canonical form of a unit search: costs are already converted to base cost with trailing zeros stripped, and the
+ * date window is dropped when no availability filter applies, so equivalent requests share one entry.
+ */
+public record UnitSearchKey(
+        UnitType type,
+        Integer rooms,
+        Integer floor,
+        BigDecimal minBaseCost,
+        BigDecimal maxBaseCost,
+        LocalDate startDate,
+        LocalDate endDate,
+        int page,
+        int size,
+        String sortBy,
+        Sort.Direction direction,
+        PaginationMode pagination,
+        String cursor,
+        CountMode count
+) {
+    public UnitSearchKey {
+        minBaseCost = minBaseCost == null ? null : minBaseCost.stripTrailingZeros();
+        maxBaseCost = maxBaseCost == null ? null : maxBaseCost.stripTrailingZeros();
+        if (startDate == null || endDate == null) {
+            startDate = null;
+            endDate = null;
+        }
+    }
+
+    /**
+     * The same filters without paging, sorting and counting options, so every page of a search maps to one key.
+     */
+    public UnitSearchKey filterKey() {
+        return new UnitSearchKey(type, rooms, floor, minBaseCost, maxBaseCost, startDate, endDate, 0, 0, null, null,
+                null, null, null);
+    }
+
+    public boolean appliesAvailability() {
+        return startDate != null;
+    }
+
+    /**
+     * Whether the unit passes the attribute filters of this search.
+     */
+    public boolean matches(Unit unit) {
+        return (type == null || type == unit.getType())
+                && (rooms == null || rooms == unit.getRooms())
+                && (floor == null || floor == unit.getFloor())
+                && (minBaseCost == null || unit.getBaseCost().compareTo(minBaseCost) >= 0)
+                && (maxBaseCost == null || unit.getBaseCost().compareTo(maxBaseCost) <= 0);
+    }
+
+    public boolean overlaps(LocalDate from, LocalDate to) {
+        return appliesAvailability() && !endDate.isBefore(from) && !startDate.isAfter(to);
+    }
+}
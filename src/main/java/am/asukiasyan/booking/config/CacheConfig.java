@@ -0,0 +1,66 @@
+package am.asukiasyan.booking.config;
+
+import am.asukiasyan.booking.cache.AvailabilityInvalidationListener;
+import am.asukiasyan.booking.cache.RedisAvailabilityCache;
+import am.asukiasyan.booking.cache.UnitCountCache;
+import am.asukiasyan.booking.cache.UnitSearchCache;
+import am.asukiasyan.booking.datasource.ReplicaRoutingDataSource;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * In-process caches in front of Redis. Entries are evicted through Redis pub/sub as soon as any instance changes the
+ * underlying value; the short TTL only bounds staleness while the subscription is reconnecting.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String AVAILABILITY_CACHE = "availability";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${booking.availability.near-cache-ttl:5s}") Duration ttl) {
+        var cacheManager = new CaffeineCacheManager(AVAILABILITY_CACHE);
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(1_000));
+        return cacheManager;
+    }
+
+    @Bean
+    public RedisMessageListenerContainer availabilityInvalidationContainer(RedisConnectionFactory connectionFactory,
+                                                                           CacheManager cacheManager) {
+        var container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                new AvailabilityInvalidationListener(Objects.requireNonNull(cacheManager.getCache(AVAILABILITY_CACHE))),
+                new ChannelTopic(RedisAvailabilityCache.CHANNEL));
+        return container;
+    }
+
+    @Bean
+    public UnitSearchCache unitSearchCache(@Value("${booking.search.cache.max-weight:50000}") long maxWeight,
+                                           @Value("${booking.search.cache.ttl:30s}") Duration ttl,
+                                           @Value("${booking.search.cache.replica-staleness:6s}")
+                                           Duration replicaStaleness) {
+        return new UnitSearchCache(maxWeight, ttl, replicaStaleness,
+                ReplicaRoutingDataSource::isCurrentTransactionOnReplica);
+    }
+
+    @Bean
+    public UnitCountCache unitCountCache(@Value("${booking.search.count.estimate-max-size:10000}") long maxSize,
+                                         @Value("${booking.search.count.estimate-ttl:5m}") Duration ttl) {
+        return new UnitCountCache(maxSize, ttl);
+    }
+}
@@ -0,0 +1,65 @@
+package am.asukiasyan.booking.config;
+
+import am.asukiasyan.booking.datasource.ReadReplicas;
+import am.asukiasyan.booking.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Routes read-only transactions to read replicas when {@code booking.datasource.replica.urls} is set. Without
+ * replicas this configuration is skipped and Spring Boot's single data source is used as before.
+ */
+@Configuration
+@ConditionalOnExpression("!'${booking.datasource.replica.urls:}'.isBlank()")
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReadReplicas readReplicas(DataSourceProperties properties,
+                                     HikariDataSource primaryDataSource,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${booking.datasource.replica.urls}") List<String> urls,
+                                     @Value("${booking.datasource.replica.username:}") String username,
+                                     @Value("${booking.datasource.replica.password:}") String password,
+                                     @Value("${booking.datasource.replica.maximum-pool-size:20}") int poolSize,
+                                     @Value("${booking.datasource.replica.max-lag:5s}") Duration maxLag) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            var replica = new HikariDataSource();
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(urls.get(i).trim());
+            replica.setUsername(username.isEmpty() ? properties.determineUsername() : username);
+            replica.setPassword(password.isEmpty() ? properties.determinePassword() : password);
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            replica.setDataSourceProperties(primaryDataSource.getDataSourceProperties());
+            replicas.put(replica.getPoolName(), replica);
+        }
+        return new ReadReplicas(replicas, maxLag, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReadReplicas readReplicas) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primaryDataSource, readReplicas));
+    }
+}
@@ -0,0 +1,36 @@
+package am.asukiasyan.booking.config;
+
+import am.asukiasyan.booking.availability.OccupancyIndex;
+import am.asukiasyan.booking.availability.OccupancySync;
+import am.asukiasyan.booking.cache.UnitSearchCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@Configuration
+public class OccupancyConfig {
+
+    @Bean
+    public OccupancyIndex occupancyIndex(@Value("${booking.occupancy.horizon-days:400}") int horizonDays) {
+        return new OccupancyIndex(horizonDays);
+    }
+
+    @Bean
+    public OccupancySync occupancySync(OccupancyIndex occupancyIndex, UnitSearchCache unitSearchCache,
+                                       StringRedisTemplate redisTemplate) {
+        return new OccupancySync(occupancyIndex, unitSearchCache, redisTemplate);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer occupancySyncContainer(RedisConnectionFactory connectionFactory,
+                                                                OccupancySync occupancySync) {
+        var container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(occupancySync, new ChannelTopic(OccupancySync.CHANNEL));
+        return container;
+    }
+}
@@ -1,6 +1,7 @@
 package am.asukiasyan.booking.config;
 
 import am.asukiasyan.booking.cache.RedisAvailabilityCache;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.core.StringRedisTemplate;
@@ -9,7 +10,7 @@ import org.springframework.data.redis.core.StringRedisTemplate;
 public class RedisConfig {
 
     @Bean
-    public RedisAvailabilityCache availabilityCache(StringRedisTemplate redisTemplate) {
-        return new RedisAvailabilityCache(redisTemplate);
+    public RedisAvailabilityCache availabilityCache(StringRedisTemplate redisTemplate, MeterRegistry meterRegistry) {
+        return new RedisAvailabilityCache(redisTemplate, meterRegistry);
     }
 }
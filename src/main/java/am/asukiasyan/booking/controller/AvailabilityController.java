@@ -5,10 +5,14 @@ import am.asukiasyan.booking.service.AvailabilityService;
 import io.swagger.v3.oas.annotations.Operation;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
+
 @RestController
 @RequestMapping("/stats")
 @RequiredArgsConstructor
@@ -18,9 +22,11 @@ public class AvailabilityController {
     private final AvailabilityService availabilityService;
 
     @GetMapping("/availability")
-    @Operation(summary = "Get current available unit count")
-    public AvailabilityResponse availability() {
-        log.info("GET /stats/availability start");
-        return new AvailabilityResponse(availabilityService.getAvailableUnits());
+    @Operation(summary = "Get available unit count for a day, today by default")
+    public AvailabilityResponse availability(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        log.debug("GET /stats/availability start date={}", date);
+        var day = date != null ? date : LocalDate.now();
+        return new AvailabilityResponse(day, availabilityService.getAvailableUnits(day));
     }
 }
@@ -1,5 +1,7 @@
 package am.asukiasyan.booking.controller;
 
+import am.asukiasyan.booking.dto.BatchBookingRequest;
+import am.asukiasyan.booking.dto.BatchBookingResponse;
 import am.asukiasyan.booking.dto.BookingRequest;
 import am.asukiasyan.booking.dto.BookingResponse;
 import am.asukiasyan.booking.service.BookingService;
@@ -20,22 +22,29 @@ public class BookingController {
     @PostMapping
     @Operation(summary = "Create a booking")
     public BookingResponse createBooking(@RequestBody @Valid BookingRequest request) {
-        log.info("POST /bookings start userId={} unitId={} startDate={} endDate={}",
+        log.debug("POST /bookings start userId={} unitId={} startDate={} endDate={}",
                 request.userId(), request.unitId(), request.startDate(), request.endDate());
         return bookingService.createBooking(request);
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "Create bookings for many units in one transaction")
+    public BatchBookingResponse createBookings(@RequestBody @Valid BatchBookingRequest request) {
+        log.debug("POST /bookings/batch start size={} mode={}", request.bookings().size(), request.mode());
+        return bookingService.createBookings(request);
+    }
+
     @PostMapping("/{id}/cancel")
     @Operation(summary = "Cancel a booking")
     public BookingResponse cancelBooking(@PathVariable Long id) {
-        log.info("POST /bookings/{}/cancel start", id);
+        log.debug("POST /bookings/{}/cancel start", id);
         return bookingService.cancelBooking(id);
     }
 
     @PostMapping("/{id}/pay")
     @Operation(summary = "Confirm payment for a booking")
     public BookingResponse pay(@PathVariable Long id) {
-        log.info("POST /bookings/{}/pay start", id);
+        log.debug("POST /bookings/{}/pay start", id);
         return bookingService.confirmPayment(id);
     }
 }
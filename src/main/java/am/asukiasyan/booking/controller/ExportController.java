@@ -0,0 +1,72 @@
+package am.asukiasyan.booking.controller;
+
+import am.asukiasyan.booking.dto.UnitSearchRequest;
+import am.asukiasyan.booking.enums.ExportFormat;
+import am.asukiasyan.booking.service.ExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Bulk exports for downstream analytics. The body is written on an async request thread while rows are read, so
+ * filters are validated up front and any later failure can only abort the transfer.
+ */
+@RestController
+@RequestMapping("/export")
+@RequiredArgsConstructor
+@Slf4j
+public class ExportController {
+
+    private static final MediaType NDJSON = new MediaType("application", "x-ndjson", StandardCharsets.UTF_8);
+    private static final MediaType CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    private final ExportService exportService;
+
+    @GetMapping("/units")
+    @Operation(summary = "Stream all units matching the search filters as NDJSON or CSV")
+    public ResponseEntity<StreamingResponseBody> exportUnits(@ModelAttribute @Valid UnitSearchRequest request,
+                                                             @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        log.debug("GET /export/units start rooms={} type={} floor={} format={}",
+                request.rooms(), request.type(), request.floor(), format);
+        return stream("units", format, output -> exportService.exportUnits(request, format, output));
+    }
+
+    @GetMapping("/bookings")
+    @Operation(summary = "Stream live and archived bookings updated since the given time as NDJSON or CSV")
+    public ResponseEntity<StreamingResponseBody> exportBookings(@RequestParam(required = false) Instant since,
+                                                                @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        log.debug("GET /export/bookings start since={} format={}", since, format);
+        return stream("bookings", format, output -> exportService.exportBookings(since, format, output));
+    }
+
+    @GetMapping("/unit-events")
+    @Operation(summary = "Stream unit events recorded since the given time as NDJSON or CSV")
+    public ResponseEntity<StreamingResponseBody> exportUnitEvents(@RequestParam(required = false) Instant since,
+                                                                  @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        log.debug("GET /export/unit-events start since={} format={}", since, format);
+        return stream("unit-events", format, output -> exportService.exportUnitEvents(since, format, output));
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(String name, ExportFormat format, StreamingResponseBody body) {
+        var csv = format == ExportFormat.CSV;
+        var disposition = ContentDisposition.attachment().filename(name + (csv ? ".csv" : ".ndjson")).build();
+        return ResponseEntity.ok()
+                .contentType(csv ? CSV : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .body(body);
+    }
+}
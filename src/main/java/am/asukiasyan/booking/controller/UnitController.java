@@ -1,41 +1,75 @@
 package am.asukiasyan.booking.controller;
 
 import am.asukiasyan.booking.dto.PageResponse;
+import am.asukiasyan.booking.dto.UnitImportResponse;
 import am.asukiasyan.booking.dto.UnitRequest;
 import am.asukiasyan.booking.dto.UnitResponse;
 import am.asukiasyan.booking.dto.UnitSearchRequest;
+import am.asukiasyan.booking.enums.ImportFormat;
+import am.asukiasyan.booking.exception.BadRequestException;
+import am.asukiasyan.booking.service.UnitImportService;
 import am.asukiasyan.booking.service.UnitService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import io.swagger.v3.oas.annotations.Operation;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 @RestController
 @RequestMapping("/units")
 @RequiredArgsConstructor
 @Slf4j
 public class UnitController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String CSV = "text/csv";
+
     private final UnitService unitService;
+    private final UnitImportService unitImportService;
 
     @PostMapping
     @Operation(summary = "Create a new unit")
     public UnitResponse createUnit(@RequestBody @Valid UnitRequest request) {
-        log.info("POST /units start rooms={} type={} floor={}", request.rooms(), request.type(), request.floor());
+        log.debug("POST /units start rooms={} type={} floor={}", request.rooms(), request.type(), request.floor());
         return unitService.create(request);
     }
 
     @GetMapping
     @Operation(summary = "Search units with filters and pagination")
     public PageResponse<UnitResponse> searchUnits(@ModelAttribute @Valid UnitSearchRequest request) {
-        log.info("GET /units start rooms={} type={} floor={} page={} size={}",
-                request.rooms(), request.type(), request.floor(), request.page(), request.size());
+        log.debug("GET /units start rooms={} type={} floor={} pagination={} page={} size={}",
+                request.rooms(), request.type(), request.floor(), request.pagination(), request.page(), request.size());
         return unitService.search(request);
     }
+
+    @PostMapping(path = "/import", consumes = {NDJSON, CSV})
+    @Operation(summary = "Bulk import units from NDJSON or CSV (header rooms,type,floor,description,baseCost)")
+    public UnitImportResponse importUnits(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                          InputStream body) throws IOException {
+        var format = importFormat(contentType);
+        log.debug("POST /units/import start format={}", format);
+        return unitImportService.importUnits(body, format);
+    }
+
+    private ImportFormat importFormat(String contentType) {
+        var mediaType = MediaType.parseMediaType(contentType);
+        if (mediaType.isCompatibleWith(MediaType.parseMediaType(NDJSON))) {
+            return ImportFormat.NDJSON;
+        }
+        if (mediaType.isCompatibleWith(MediaType.parseMediaType(CSV))) {
+            return ImportFormat.CSV;
+        }
+        throw new BadRequestException("Unsupported import content type " + contentType);
+    }
 }
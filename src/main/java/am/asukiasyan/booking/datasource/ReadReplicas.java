@@ -0,0 +1,100 @@
+package am.asukiasyan.booking.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Replica data sources with their replication lag. A replica serves reads only while its last measured lag is within
+ * {@code maxLag}; a replica whose lag cannot be measured is treated as unavailable until the next successful check.
+ */
+@Slf4j
+public class ReadReplicas {
+
+    public static final String LAG_METRIC = "booking.datasource.replica.lag";
+
+    /**
+     * Seconds since the last replayed commit, or zero when the replica has replayed everything it received. Servers
+     * that are not in recovery report zero.
+     */
+    private static final String LAG_QUERY = """
+            select case
+                       when not pg_is_in_recovery() then 0
+                       when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+                       else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0)
+                   end
+            """;
+
+    private final Map<String, DataSource> replicas;
+    private final List<String> keys;
+    private final Duration maxLag;
+    private final Map<String, Double> lagSeconds = new ConcurrentHashMap<>();
+    private volatile List<String> healthy = List.of();
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReadReplicas(Map<String, DataSource> replicas, Duration maxLag, MeterRegistry meterRegistry) {
+        this.replicas = Map.copyOf(replicas);
+        this.keys = replicas.keySet().stream().sorted().toList();
+        this.maxLag = maxLag;
+        keys.forEach(key -> Gauge.builder(LAG_METRIC, lagSeconds, lags -> lags.getOrDefault(key, Double.NaN))
+                .tag("replica", key)
+                .baseUnit("seconds")
+                .register(meterRegistry));
+        refresh();
+    }
+
+    public Map<String, DataSource> dataSources() {
+        return replicas;
+    }
+
+    /**
+     * Picks the next replica within the lag threshold in round-robin order, or {@code null} when none is.
+     */
+    public String pick() {
+        var candidates = healthy;
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+    }
+
+    @Scheduled(fixedDelayString = "${booking.datasource.replica.lag-check-interval-ms:1000}")
+    public void refresh() {
+        var within = keys.stream().filter(this::withinMaxLag).toList();
+        if (!within.equals(healthy)) {
+            log.warn("Read replicas within lag threshold changed from {} to {}", healthy, within);
+        }
+        healthy = within;
+    }
+
+    @PreDestroy
+    public void close() throws Exception {
+        for (var dataSource : replicas.values()) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private boolean withinMaxLag(String key) {
+        try {
+            var lag = new JdbcTemplate(replicas.get(key)).queryForObject(LAG_QUERY, Double.class);
+            lagSeconds.put(key, lag);
+            return lag != null && lag * 1000 <= maxLag.toMillis();
+        } catch (RuntimeException ex) {
+            log.warn("Replication lag check failed for replica {}: {}", key, ex.getMessage());
+            lagSeconds.remove(key);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package am.asukiasyan.booking.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to a replica within the lag threshold and everything else to the primary. The
+ * read-only flag is only known once the transaction has started, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}. The chosen route is kept for the rest
+ * of the transaction, so caches can tell whether what it read came from a replica.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    /**
+     * Transaction resource holding the key the transaction was routed to.
+     */
+    private static final Object ROUTE = new Object();
+
+    private final ReadReplicas replicas;
+
+    public ReplicaRoutingDataSource(DataSource primary, ReadReplicas replicas) {
+        this.replicas = replicas;
+        Map<Object, Object> targets = new HashMap<>(replicas.dataSources());
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Whether the current transaction has fetched its connection from a replica, so what it read may lag behind the
+     * primary.
+     */
+    public static boolean isCurrentTransactionOnReplica() {
+        var route = TransactionSynchronizationManager.getResource(ROUTE);
+        return route != null && !PRIMARY.equals(route);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        var key = route();
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && TransactionSynchronizationManager.getResource(ROUTE) == null) {
+            TransactionSynchronizationManager.bindResource(ROUTE, key);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ROUTE);
+                }
+            });
+        }
+        return key;
+    }
+
+    private Object route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        var replica = replicas.pick();
+        return replica != null ? replica : PRIMARY;
+    }
+}
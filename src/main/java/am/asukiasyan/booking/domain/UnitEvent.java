@@ -11,6 +11,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -30,7 +31,8 @@ import java.time.Instant;
 public class UnitEvent {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "unit_events_id_gen")
+    @SequenceGenerator(name = "unit_events_id_gen", sequenceName = "unit_events_id_seq", allocationSize = 50)
     private Long id;
 
     @Builder.Default
@@ -48,4 +50,10 @@ public class UnitEvent {
     @Column
     private String details;
 
+    /**
+     * Set by the database when the row is inserted, so it follows commit order far more closely than the event time.
+     */
+    @Column(insertable = false, updatable = false)
+    private Instant recordedAt;
+
 }
@@ -1,4 +1,6 @@
 package am.asukiasyan.booking.dto;
 
-public record AvailabilityResponse(int availableUnits) {
+import java.time.LocalDate;
+
+public record AvailabilityResponse(LocalDate date, int availableUnits) {
 }
@@ -0,0 +1,7 @@
+package am.asukiasyan.booking.dto;
+
+/**
+ * A rejected entry of a batch, identified by its position in the request.
+ */
+public record BatchBookingError(int index, Long unitId, String message) {
+}
@@ -0,0 +1,20 @@
+package am.asukiasyan.booking.dto;
+
+import am.asukiasyan.booking.enums.BatchMode;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BatchBookingRequest(
+        @NotEmpty @Size(max = 100) List<@NotNull @Valid BookingRequest> bookings,
+        BatchMode mode
+) {
+    public BatchBookingRequest {
+        if (mode == null) {
+            mode = BatchMode.ALL_OR_NOTHING;
+        }
+    }
+}
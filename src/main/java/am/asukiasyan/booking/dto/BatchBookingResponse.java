@@ -0,0 +1,6 @@
+package am.asukiasyan.booking.dto;
+
+import java.util.List;
+
+public record BatchBookingResponse(List<BookingResponse> booked, List<BatchBookingError> rejected) {
+}
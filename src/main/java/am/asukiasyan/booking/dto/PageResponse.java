@@ -2,10 +2,17 @@ package am.asukiasyan.booking.dto;
 
 import java.util.List;
 
+/**
+ * One page of results. {@code totalElements} is {@code null} when the count was skipped, and {@code nextCursor} is set
+ * only for keyset pages that have a following page. {@code totalExact} is {@code false} when the total is a lower
+ * bound or an estimate.
+ */
 public record PageResponse<T>(
         List<T> content,
         int page,
         int size,
-        long totalElements
+        Long totalElements,
+        String nextCursor,
+        Boolean totalExact
 ) {
 }
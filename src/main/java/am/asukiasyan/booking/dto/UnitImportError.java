@@ -0,0 +1,7 @@
+package am.asukiasyan.booking.dto;
+
+public record UnitImportError(
+        long line,
+        String message
+) {
+}
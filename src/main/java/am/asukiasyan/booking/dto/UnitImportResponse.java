@@ -0,0 +1,13 @@
+package am.asukiasyan.booking.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. {@code errors} lists at most the first failed rows; {@code failed} counts all of them.
+ */
+public record UnitImportResponse(
+        int imported,
+        int failed,
+        List<UnitImportError> errors
+) {
+}
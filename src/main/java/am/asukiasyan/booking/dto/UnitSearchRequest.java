@@ -1,5 +1,7 @@
 package am.asukiasyan.booking.dto;
 
+import am.asukiasyan.booking.enums.CountMode;
+import am.asukiasyan.booking.enums.PaginationMode;
 import am.asukiasyan.booking.enums.UnitType;
 import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.Positive;
@@ -21,7 +23,10 @@ public record UnitSearchRequest(
         @PositiveOrZero Integer page,
         @Positive Integer size,
         String sortBy,
-        Sort.Direction direction
+        Sort.Direction direction,
+        PaginationMode pagination,
+        String cursor,
+        CountMode count
 ) {
     public UnitSearchRequest {
         if (page == null || page < 0) {
@@ -36,6 +41,18 @@ public record UnitSearchRequest(
         if (direction == null) {
             direction = Sort.Direction.ASC;
         }
+        if (cursor != null && cursor.isBlank()) {
+            cursor = null;
+        }
+        if (cursor != null) {
+            pagination = PaginationMode.KEYSET;
+        }
+        if (pagination == null) {
+            pagination = PaginationMode.OFFSET;
+        }
+        if (count == null) {
+            count = pagination == PaginationMode.OFFSET ? CountMode.CAPPED : CountMode.NONE;
+        }
     }
 
     @AssertTrue(message = "maxCost must be greater than or equal to minCost")
@@ -0,0 +1,6 @@
+package am.asukiasyan.booking.enums;
+
+public enum BatchMode {
+    ALL_OR_NOTHING,
+    BEST_EFFORT
+}
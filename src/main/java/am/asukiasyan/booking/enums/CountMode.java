@@ -0,0 +1,13 @@
+package am.asukiasyan.booking.enums;
+
+/**
+ * How the total of a search page is counted. {@code CAPPED} stops counting past a threshold and {@code ESTIMATED}
+ * reuses a recent count of the same filters; both report the total as not exact when it may be off. {@code NONE}
+ * skips the count.
+ */
+public enum CountMode {
+    NONE,
+    EXACT,
+    CAPPED,
+    ESTIMATED
+}
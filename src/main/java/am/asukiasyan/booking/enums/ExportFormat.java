@@ -0,0 +1,6 @@
+package am.asukiasyan.booking.enums;
+
+public enum ExportFormat {
+    NDJSON,
+    CSV
+}
@@ -0,0 +1,8 @@
+package am.asukiasyan.booking.event;
+
+import am.asukiasyan.booking.enums.UnitEventType;
+
+import java.time.Instant;
+
+public record PendingUnitEvent(Long unitId, UnitEventType type, String details, Instant createdAt) {
+}
@@ -0,0 +1,137 @@
+package am.asukiasyan.booking.event;
+
+import am.asukiasyan.booking.enums.UnitEventType;
+import am.asukiasyan.booking.util.TransactionHooks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Writes the unit audit trail through an append-only outbox. Events are inserted into {@code unit_event_outbox} in
+ * one JDBC batch just before the recording transaction commits, so they are durable exactly when the change they
+ * describe is, and a rolled back transaction leaves none behind. A scheduled writer moves them to {@code unit_events}
+ * in batches; each batch is deleted from the outbox by the same statement that inserts it, and rows locked by another
+ * instance are skipped. A batch that fails stays in the outbox for the next flush. Events {@code unit_events} rejects
+ * as invalid are logged and dropped one by one so that they cannot hold up the rest.
+ */
+@Component
+@Slf4j
+public class UnitEventWriter {
+
+    private static final String INSERT_OUTBOX_SQL =
+            "insert into unit_event_outbox (unit_id, event_type, details, created_at) values (?, ?, ?, ?)";
+
+    private static final String MOVE_BATCH_SQL = """
+            with moved as (
+                delete from unit_event_outbox
+                where id in (select id from unit_event_outbox order by id limit ? for update skip locked)
+                returning id, unit_id, event_type, details, created_at
+            )
+            insert into unit_events (unit_id, event_type, details, created_at)
+            select unit_id, event_type, details, created_at from moved order by id
+            """;
+
+    private static final String MOVE_ONE_SQL = """
+            with moved as (
+                delete from unit_event_outbox where id = ?
+                returning unit_id, event_type, details, created_at
+            )
+            insert into unit_events (unit_id, event_type, details, created_at)
+            select unit_id, event_type, details, created_at from moved
+            """;
+
+    private static final String SELECT_BATCH_SQL =
+            "select id, unit_id, event_type, details, created_at from unit_event_outbox order by id limit ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public UnitEventWriter(JdbcTemplate jdbcTemplate,
+                           @Value("${booking.events.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Adds the events to the outbox as part of the surrounding transaction, or right away when there is none.
+     */
+    public void append(Collection<PendingUnitEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        var batch = List.copyOf(events);
+        TransactionHooks.beforeCommit(() -> jdbcTemplate.batchUpdate(INSERT_OUTBOX_SQL, batch, batch.size(),
+                (statement, event) -> {
+                    statement.setLong(1, event.unitId());
+                    statement.setString(2, event.type().name());
+                    statement.setString(3, event.details());
+                    statement.setTimestamp(4, Timestamp.from(event.createdAt()));
+                }));
+    }
+
+    @Scheduled(fixedDelayString = "${booking.events.flush-interval-ms:200}")
+    public int flush() {
+        if (!flushLock.tryLock()) {
+            return 0;
+        }
+        int written = 0;
+        try {
+            int moved;
+            do {
+                try {
+                    moved = jdbcTemplate.update(MOVE_BATCH_SQL, batchSize);
+                    written += moved;
+                } catch (DataIntegrityViolationException ex) {
+                    log.warn("Unit event batch rejected, moving events one by one: {}", ex.getMessage());
+                    moved = batchSize;
+                    written += moveEach();
+                }
+            } while (moved == batchSize);
+        } catch (RuntimeException ex) {
+            log.warn("Unit event flush failed, events stay in the outbox: {}", ex.getMessage());
+        } finally {
+            flushLock.unlock();
+        }
+        if (written > 0) {
+            log.debug("Flushed unit events count={}", written);
+        }
+        return written;
+    }
+
+    public long backlog() {
+        return Objects.requireNonNullElse(
+                jdbcTemplate.queryForObject("select count(*) from unit_event_outbox", Long.class), 0L);
+    }
+
+    /**
+     * Isolates the events of a rejected batch. Events that are invalid on their own are dropped from the outbox; any
+     * other error propagates and leaves the rest of the batch in place.
+     */
+    private int moveEach() {
+        int written = 0;
+        for (var entry : jdbcTemplate.query(SELECT_BATCH_SQL, (rs, rowNum) -> new OutboxEntry(rs.getLong("id"),
+                new PendingUnitEvent(rs.getLong("unit_id"), UnitEventType.valueOf(rs.getString("event_type")),
+                        rs.getString("details"), rs.getTimestamp("created_at").toInstant())), batchSize)) {
+            try {
+                written += jdbcTemplate.update(MOVE_ONE_SQL, entry.id());
+            } catch (DataIntegrityViolationException ex) {
+                jdbcTemplate.update("delete from unit_event_outbox where id = ?", entry.id());
+                log.error("Unit event dropped, rejected by database event={}: {}", entry.event(), ex.getMessage());
+            }
+        }
+        return written;
+    }
+
+    private record OutboxEntry(long id, PendingUnitEvent event) {
+    }
+}
@@ -0,0 +1,61 @@
+package am.asukiasyan.booking.expiry;
+
+import am.asukiasyan.booking.repository.BookingRepository;
+import am.asukiasyan.booking.util.TransactionHooks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Tracks payment deadlines of pending bookings so they can be cancelled right when they expire.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookingExpiryWheel {
+
+    private static final Duration TICK = Duration.ofSeconds(1);
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(5);
+
+    private final BookingRepository bookingRepository;
+    private final TimingWheel<Long> wheel = new TimingWheel<>(TICK.toMillis(), System.currentTimeMillis());
+
+    /**
+     * Loads from the primary: a lagging replica would miss bookings created just before startup, which then never expire.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuild() {
+        var pending = bookingRepository.findPendingExpiries();
+        pending.forEach(expiry -> wheel.schedule(expiry.bookingId(), expiry.expiresAt().toEpochMilli()));
+        log.info("Booking expiry wheel loaded pending={}", pending.size());
+    }
+
+    public void register(Long bookingId, Instant expiresAt) {
+        TransactionHooks.afterCommit(() -> wheel.schedule(bookingId, expiresAt.toEpochMilli()));
+    }
+
+    public void unregister(Long bookingId) {
+        TransactionHooks.afterCommit(() -> wheel.cancel(bookingId));
+    }
+
+    public List<Long> pollExpired(Instant now) {
+        return wheel.advance(now.toEpochMilli());
+    }
+
+    /**
+     * Puts bookings back on the wheel after a failed cancellation attempt.
+     */
+    public void retry(Collection<Long> bookingIds) {
+        var retryAt = Instant.now().plus(RETRY_DELAY).toEpochMilli();
+        bookingIds.forEach(id -> wheel.schedule(id, retryAt));
+    }
+}
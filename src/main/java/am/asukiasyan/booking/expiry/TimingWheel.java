@@ -0,0 +1,139 @@
+package am.asukiasyan.booking.expiry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hierarchical timing wheel with three levels of 64 slots. Level 0 holds deadlines within 64 ticks, level 1 within
+ * 64^2 ticks and level 2 within 64^3 ticks; later deadlines wait in an overflow set. Higher levels cascade down as
+ * the wheel turns, so adding, removing and advancing by one tick cost O(1) amortized.
+ */
+public class TimingWheel<K> {
+
+    private static final int LEVELS = 3;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private final long tickMillis;
+    private final List<List<Set<K>>> levels = new ArrayList<>();
+    private final Set<K> overflow = new HashSet<>();
+    private final Map<K, Long> deadlines = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private long currentTick;
+
+    public TimingWheel(long tickMillis, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        for (int level = 0; level < LEVELS; level++) {
+            List<Set<K>> slots = new ArrayList<>(SLOTS);
+            for (int slot = 0; slot < SLOTS; slot++) {
+                slots.add(new HashSet<>());
+            }
+            levels.add(slots);
+        }
+    }
+
+    /**
+     * Schedules the key for {@code deadlineMillis}, replacing any earlier schedule of the same key.
+     */
+    public void schedule(K key, long deadlineMillis) {
+        lock.lock();
+        try {
+            var deadlineTick = Math.max(ceilTick(deadlineMillis), currentTick + 1);
+            deadlines.put(key, deadlineTick);
+            place(key, deadlineTick);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void cancel(K key) {
+        lock.lock();
+        try {
+            deadlines.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Turns the wheel up to {@code nowMillis} and returns the keys whose deadline has passed.
+     */
+    public List<K> advance(long nowMillis) {
+        lock.lock();
+        try {
+            var targetTick = nowMillis / tickMillis;
+            List<K> due = new ArrayList<>();
+            while (currentTick < targetTick) {
+                currentTick++;
+                cascade();
+                var slot = levels.get(0).get((int) (currentTick & SLOT_MASK));
+                for (K key : slot) {
+                    var deadline = deadlines.get(key);
+                    if (deadline != null && deadline <= currentTick) {
+                        deadlines.remove(key);
+                        due.add(key);
+                    }
+                }
+                slot.clear();
+            }
+            return due;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return deadlines.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void cascade() {
+        for (int level = 1; level <= LEVELS; level++) {
+            if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                return;
+            }
+            if (level == LEVELS) {
+                redistribute(overflow);
+            } else {
+                redistribute(levels.get(level).get((int) ((currentTick >> (SLOT_BITS * level)) & SLOT_MASK)));
+            }
+        }
+    }
+
+    private void redistribute(Set<K> slot) {
+        var keys = new ArrayList<>(slot);
+        slot.clear();
+        for (K key : keys) {
+            var deadline = deadlines.get(key);
+            if (deadline != null) {
+                place(key, deadline);
+            }
+        }
+    }
+
+    private void place(K key, long deadlineTick) {
+        var delta = deadlineTick - currentTick;
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < 1L << (SLOT_BITS * (level + 1))) {
+                levels.get(level).get((int) ((deadlineTick >> (SLOT_BITS * level)) & SLOT_MASK)).add(key);
+                return;
+            }
+        }
+        overflow.add(key);
+    }
+
+    private long ceilTick(long millis) {
+        return Math.floorDiv(millis + tickMillis - 1, tickMillis);
+    }
+}
@@ -1,19 +1,23 @@
 package am.asukiasyan.booking.repository;
 
 import am.asukiasyan.booking.domain.Booking;
+import am.asukiasyan.booking.enums.BookingStatus;
+import am.asukiasyan.booking.repository.custom.BookingRepositoryCustom;
+import am.asukiasyan.booking.repository.projection.BookingExpiry;
+import am.asukiasyan.booking.repository.projection.BookingSpan;
 import org.springframework.data.jpa.repository.JpaRepository;
-import jakarta.persistence.LockModeType;
-import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
 
     @Query("""
             select case when count(b) > 0 then true else false end
@@ -29,12 +33,66 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             @Param("endDate") LocalDate endDate
     );
 
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("""
-            select b from Booking b
+            select new am.asukiasyan.booking.repository.projection.BookingSpan(b.id, b.unit.id, b.startDate, b.endDate)
+            from Booking b
+            where b.status <> 'CANCELLED'
+              and b.endDate >= :from
+              and b.startDate <= :to
+            """)
+    List<BookingSpan> findActiveSpans(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("""
+            select new am.asukiasyan.booking.repository.projection.BookingSpan(b.id, b.unit.id, b.startDate, b.endDate)
+            from Booking b
+            where b.unit.id in :unitIds
+              and b.status <> 'CANCELLED'
+              and b.endDate >= :from
+              and b.startDate <= :to
+            """)
+    List<BookingSpan> findActiveSpans(@Param("unitIds") Collection<Long> unitIds,
+                                      @Param("from") LocalDate from,
+                                      @Param("to") LocalDate to);
+
+    /**
+     * Claims a chunk of expired pending bookings, skipping rows another transaction already holds.
+     */
+    @Query(value = """
+            select * from bookings
+            where status = 'PENDING_PAYMENT'
+              and expires_at is not null
+              and expires_at <= :now
+            order by expires_at
+            limit :limit
+            for update skip locked
+            """, nativeQuery = true)
+    List<Booking> claimExpiredBookings(@Param("now") Instant now, @Param("limit") int limit);
+
+    @Query(value = """
+            select * from bookings
+            where id in (:ids)
+              and status = 'PENDING_PAYMENT'
+              and expires_at is not null
+              and expires_at <= :now
+            for update skip locked
+            """, nativeQuery = true)
+    List<Booking> claimExpiredBookingsByIds(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            update Booking b
+            set b.status = :status, b.expiresAt = null, b.updatedAt = :now, b.version = b.version + 1
+            where b.id in :ids
+            """)
+    int updateStatus(@Param("ids") Collection<Long> ids,
+                     @Param("status") BookingStatus status,
+                     @Param("now") Instant now);
+
+    @Query("""
+            select new am.asukiasyan.booking.repository.projection.BookingExpiry(b.id, b.expiresAt)
+            from Booking b
             where b.status = 'PENDING_PAYMENT'
               and b.expiresAt is not null
-              and b.expiresAt <= :now
             """)
-    List<Booking> findExpiredBookings(@Param("now") Instant now);
+    List<BookingExpiry> findPendingExpiries();
 }
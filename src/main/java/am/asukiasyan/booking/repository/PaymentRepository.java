@@ -1,13 +1,23 @@
 package am.asukiasyan.booking.repository;
 
 import am.asukiasyan.booking.domain.Payment;
+import am.asukiasyan.booking.enums.PaymentStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Optional;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
 
     Optional<Payment> findByBookingId(Long bookingId);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Payment p set p.status = :status where p.booking.id in :bookingIds")
+    int updateStatusByBookingIds(@Param("bookingIds") Collection<Long> bookingIds,
+                                 @Param("status") PaymentStatus status);
 }
@@ -1,9 +1,36 @@
 package am.asukiasyan.booking.repository;
 
 import am.asukiasyan.booking.domain.UnitEvent;
+import am.asukiasyan.booking.repository.custom.UnitRepositoryCustom;
+import am.asukiasyan.booking.repository.projection.UnitEventExport;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.stream.Stream;
+
 @Repository
 public interface UnitEventRepository extends JpaRepository<UnitEvent, Long> {
+
+    /**
+     * Events recorded at or after {@code since} in (recordedAt, id) order, read through a database cursor. The stream
+     * must be consumed and closed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + UnitRepositoryCustom.STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select new am.asukiasyan.booking.repository.projection.UnitEventExport(
+                e.id, e.unit.id, e.eventType, e.details, e.createdAt, e.recordedAt)
+            from UnitEvent e
+            where e.recordedAt >= :since
+            order by e.recordedAt, e.id
+            """)
+    Stream<UnitEventExport> streamRecordedSince(@Param("since") Instant since);
 }
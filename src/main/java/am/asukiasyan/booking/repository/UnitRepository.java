@@ -1,38 +1,41 @@
 package am.asukiasyan.booking.repository;
 
 import am.asukiasyan.booking.domain.Unit;
+import am.asukiasyan.booking.dto.UnitResponse;
 import am.asukiasyan.booking.enums.UnitType;
 import am.asukiasyan.booking.repository.custom.UnitRepositoryCustom;
 import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface UnitRepository extends JpaRepository<Unit, Long>, UnitRepositoryCustom {
 
-    Page<Unit> search(@Param("type") UnitType type,
-                      @Param("rooms") Integer rooms,
-                      @Param("floor") Integer floor,
-                      @Param("minBaseCost") BigDecimal minBaseCost,
-                      @Param("maxBaseCost") BigDecimal maxBaseCost,
-                      @Param("startDate") LocalDate startDate,
-                      @Param("endDate") LocalDate endDate,
-                      @Param("applyAvailability") boolean applyAvailability,
-                      Pageable pageable);
-
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("select u from Unit u where u.id = :id")
-    Optional<Unit> findByIdForUpdate(@Param("id") Long id);
+    List<UnitResponse> search(@Param("type") UnitType type,
+                              @Param("rooms") Integer rooms,
+                              @Param("floor") Integer floor,
+                              @Param("minBaseCost") BigDecimal minBaseCost,
+                              @Param("maxBaseCost") BigDecimal maxBaseCost,
+                              @Param("startDate") LocalDate startDate,
+                              @Param("endDate") LocalDate endDate,
+                              @Param("applyAvailability") boolean applyAvailability,
+                              Pageable pageable,
+                              BigDecimal markup);
 
+    /**
+     * Runs read-write so that it is served by the primary; the result seeds counters that are then only adjusted.
+     */
+    @Transactional
     @Query("""
             select count(u) from Unit u
             where not exists(
@@ -44,4 +47,11 @@ public interface UnitRepository extends JpaRepository<Unit, Long>, UnitRepositor
             )
             """)
     long countAvailableToday(@Param("today") LocalDate today);
+
+    /**
+     * Locks the units in ascending id order, so concurrent callers locking overlapping sets cannot deadlock.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select u from Unit u where u.id in :ids order by u.id")
+    List<Unit> lockAllByIdOrderById(@Param("ids") Collection<Long> ids);
 }
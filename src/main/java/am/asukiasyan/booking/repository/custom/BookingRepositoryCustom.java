@@ -0,0 +1,16 @@
+package am.asukiasyan.booking.repository.custom;
+
+import am.asukiasyan.booking.repository.projection.BookingExport;
+
+import java.time.Instant;
+import java.util.stream.Stream;
+
+public interface BookingRepositoryCustom {
+
+    /**
+     * Live and archived bookings last updated at or after {@code since} in (updatedAt, id) order, read through a
+     * database cursor. Both tables are read by one statement, so a booking archived while the export runs appears
+     * exactly once. The stream must be consumed and closed inside a transaction.
+     */
+    Stream<BookingExport> streamChangedSince(Instant since);
+}
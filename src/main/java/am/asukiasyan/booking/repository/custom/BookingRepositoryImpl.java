@@ -0,0 +1,59 @@
+package am.asukiasyan.booking.repository.custom;
+
+import am.asukiasyan.booking.enums.BookingStatus;
+import am.asukiasyan.booking.repository.projection.BookingExport;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+/**
+ * Plain SQL, since {@code bookings_archive} is a partitioned table without an entity mapping.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BookingRepositoryImpl implements BookingRepositoryCustom {
+
+    private static final String CHANGED_SINCE_SQL = """
+            select id, unit_id, user_id, start_date, end_date, status, total_cost, created_at, updated_at
+            from bookings
+            where updated_at >= ?
+            union all
+            select id, unit_id, user_id, start_date, end_date, status, total_cost, created_at, updated_at
+            from bookings_archive
+            where updated_at >= ?
+            order by updated_at, id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Stream<BookingExport> streamChangedSince(Instant since) {
+        return jdbcTemplate.queryForStream(connection -> {
+            var statement = connection.prepareStatement(CHANGED_SINCE_SQL);
+            statement.setFetchSize(UnitRepositoryCustom.STREAM_FETCH_SIZE);
+            statement.setTimestamp(1, Timestamp.from(since));
+            statement.setTimestamp(2, Timestamp.from(since));
+            return statement;
+        }, (rs, rowNum) -> toExport(rs));
+    }
+
+    private BookingExport toExport(ResultSet rs) throws SQLException {
+        return new BookingExport(
+                rs.getLong("id"),
+                rs.getLong("unit_id"),
+                rs.getLong("user_id"),
+                rs.getObject("start_date", LocalDate.class),
+                rs.getObject("end_date", LocalDate.class),
+                BookingStatus.valueOf(rs.getString("status")),
+                rs.getBigDecimal("total_cost"),
+                rs.getTimestamp("created_at").toInstant(),
+                rs.getTimestamp("updated_at").toInstant());
+    }
+}
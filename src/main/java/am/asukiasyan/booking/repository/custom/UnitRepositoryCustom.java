@@ -1,22 +1,88 @@
 package am.asukiasyan.booking.repository.custom;
 
-import am.asukiasyan.booking.domain.Unit;
+import am.asukiasyan.booking.dto.UnitResponse;
 import am.asukiasyan.booking.enums.UnitType;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
 
+/**
+ * Unit search projected straight into {@link UnitResponse}, so result rows are never loaded as managed entities. The
+ * {@code finalCost} is computed in SQL as {@code baseCost * markup} rounded half up to cents.
+ */
 public interface UnitRepositoryCustom {
 
-    Page<Unit> search(UnitType type,
-                      Integer rooms,
-                      Integer floor,
-                      BigDecimal minBaseCost,
-                      BigDecimal maxBaseCost,
-                      LocalDate startDate,
-                      LocalDate endDate,
-                      boolean applyAvailability,
-                      Pageable pageable);
+    int STREAM_FETCH_SIZE = 1_000;
+
+    /**
+     * Offset page of matching units; the total is counted separately with one of the count methods.
+     */
+    List<UnitResponse> search(UnitType type,
+                              Integer rooms,
+                              Integer floor,
+                              BigDecimal minBaseCost,
+                              BigDecimal maxBaseCost,
+                              LocalDate startDate,
+                              LocalDate endDate,
+                              boolean applyAvailability,
+                              Pageable pageable,
+                              BigDecimal markup);
+
+    /**
+     * Keyset page: units strictly after ({@code lastSortValue}, {@code lastId}) in {@code order}, with the id as
+     * tie-breaker. Pass {@code null} position values for the first page.
+     */
+    List<UnitResponse> searchAfter(UnitType type,
+                                   Integer rooms,
+                                   Integer floor,
+                                   BigDecimal minBaseCost,
+                                   BigDecimal maxBaseCost,
+                                   LocalDate startDate,
+                                   LocalDate endDate,
+                                   boolean applyAvailability,
+                                   Sort.Order order,
+                                   Comparable<?> lastSortValue,
+                                   Long lastId,
+                                   int limit,
+                                   BigDecimal markup);
+
+    long countMatching(UnitType type,
+                       Integer rooms,
+                       Integer floor,
+                       BigDecimal minBaseCost,
+                       BigDecimal maxBaseCost,
+                       LocalDate startDate,
+                       LocalDate endDate,
+                       boolean applyAvailability);
+
+    /**
+     * Counts matching units but stops at {@code limit}, so the cost is bounded however many units match.
+     */
+    long countMatchingUpTo(UnitType type,
+                           Integer rooms,
+                           Integer floor,
+                           BigDecimal minBaseCost,
+                           BigDecimal maxBaseCost,
+                           LocalDate startDate,
+                           LocalDate endDate,
+                           boolean applyAvailability,
+                           int limit);
+
+    /**
+     * Every matching unit in id order, read through a database cursor {@value #STREAM_FETCH_SIZE} rows at a time. The
+     * stream must be consumed and closed inside a transaction.
+     */
+    Stream<UnitResponse> streamMatching(UnitType type,
+                                        Integer rooms,
+                                        Integer floor,
+                                        BigDecimal minBaseCost,
+                                        BigDecimal maxBaseCost,
+                                        LocalDate startDate,
+                                        LocalDate endDate,
+                                        boolean applyAvailability,
+                                        BigDecimal markup);
 }
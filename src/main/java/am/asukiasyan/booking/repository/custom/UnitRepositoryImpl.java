@@ -1,140 +1,236 @@
 package am.asukiasyan.booking.repository.custom;
 
-import am.asukiasyan.booking.domain.Booking;
+import am.asukiasyan.booking.availability.OccupancyIndex;
 import am.asukiasyan.booking.domain.Unit;
-import am.asukiasyan.booking.enums.BookingStatus;
+import am.asukiasyan.booking.dto.UnitResponse;
 import am.asukiasyan.booking.enums.UnitType;
+import am.asukiasyan.booking.repository.custom.UnitSearchShape.Availability;
+import am.asukiasyan.booking.repository.custom.UnitSearchShape.Result;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.FlushModeType;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.TypedQuery;
-import jakarta.persistence.criteria.CriteriaBuilder;
-import jakarta.persistence.criteria.CriteriaQuery;
-import jakarta.persistence.criteria.Expression;
-import jakarta.persistence.criteria.Order;
-import jakarta.persistence.criteria.Predicate;
-import jakarta.persistence.criteria.Root;
-import jakarta.persistence.criteria.Subquery;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.List;
-
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Unit search over JPQL that is generated once per {@link UnitSearchShape} and cached. Filter values, the availability
+ * window and the keyset position are always bound as parameters, so every request of a shape produces the same SQL.
+ * Queries run read-only and without an automatic flush, since they never see entities changed in the same session.
+ */
 @Repository
+@RequiredArgsConstructor
 public class UnitRepositoryImpl implements UnitRepositoryCustom {
 
+    private static final int MAX_EXCLUDED_UNITS = 1000;
+
+    private final OccupancyIndex occupancyIndex;
+    private final Map<UnitSearchShape, String> jpqlByShape = new ConcurrentHashMap<>();
+
     @PersistenceContext
     private EntityManager entityManager;
 
     @Override
-    public Page<Unit> search(UnitType type,
-                             Integer rooms,
-                             Integer floor,
-                             BigDecimal minBaseCost,
-                             BigDecimal maxBaseCost,
-                             LocalDate startDate,
-                             LocalDate endDate,
-                             boolean applyAvailability,
-                             Pageable pageable) {
-
-        var cb = entityManager.getCriteriaBuilder();
-        var cq = cb.createQuery(Unit.class);
-        var unit = cq.from(Unit.class);
-
-        var predicates = buildPredicates(cb, cq, unit, type, rooms, floor, minBaseCost, maxBaseCost, startDate, endDate, applyAvailability);
+    public List<UnitResponse> search(UnitType type,
+                                     Integer rooms,
+                                     Integer floor,
+                                     BigDecimal minBaseCost,
+                                     BigDecimal maxBaseCost,
+                                     LocalDate startDate,
+                                     LocalDate endDate,
+                                     boolean applyAvailability,
+                                     Pageable pageable,
+                                     BigDecimal markup) {
+
+        var filter = filter(type, rooms, floor, minBaseCost, maxBaseCost, startDate, endDate, applyAvailability);
+        var orders = pageable.getSort().isSorted() ? pageable.getSort().toList() : List.of(Sort.Order.asc("id"));
+
+        return createQuery(filter, Result.PAGE, false, orders, UnitResponse.class)
+                .setParameter("markup", markup)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+    }
 
-        cq.select(unit).where(predicates.toArray(new Predicate[0]));
-        cq.orderBy(toOrders(cb, unit, pageable.getSort()));
+    @Override
+    public List<UnitResponse> searchAfter(UnitType type,
+                                          Integer rooms,
+                                          Integer floor,
+                                          BigDecimal minBaseCost,
+                                          BigDecimal maxBaseCost,
+                                          LocalDate startDate,
+                                          LocalDate endDate,
+                                          boolean applyAvailability,
+                                          Sort.Order order,
+                                          Comparable<?> lastSortValue,
+                                          Long lastId,
+                                          int limit,
+                                          BigDecimal markup) {
+
+        var filter = filter(type, rooms, floor, minBaseCost, maxBaseCost, startDate, endDate, applyAvailability);
+        var orders = "id".equals(order.getProperty())
+                ? List.of(order)
+                : List.of(order, new Sort.Order(order.getDirection(), "id"));
+
+        var query = createQuery(filter, Result.KEYSET, lastId != null, orders, UnitResponse.class)
+                .setParameter("markup", markup);
+        if (lastId != null) {
+            query.setParameter("lastId", lastId);
+            if (!"id".equals(order.getProperty())) {
+                query.setParameter("lastSortValue", lastSortValue);
+            }
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
 
-        var query = entityManager.createQuery(cq);
-        query.setFirstResult((int) pageable.getOffset());
-        query.setMaxResults(pageable.getPageSize());
-        var content = query.getResultList();
+    @Override
+    public long countMatching(UnitType type,
+                              Integer rooms,
+                              Integer floor,
+                              BigDecimal minBaseCost,
+                              BigDecimal maxBaseCost,
+                              LocalDate startDate,
+                              LocalDate endDate,
+                              boolean applyAvailability) {
+
+        var filter = filter(type, rooms, floor, minBaseCost, maxBaseCost, startDate, endDate, applyAvailability);
+        return createQuery(filter, Result.COUNT, false, List.of(), Long.class).getSingleResult();
+    }
 
-        long total = count(cb, type, rooms, floor, minBaseCost, maxBaseCost, startDate, endDate, applyAvailability);
+    @Override
+    public long countMatchingUpTo(UnitType type,
+                                  Integer rooms,
+                                  Integer floor,
+                                  BigDecimal minBaseCost,
+                                  BigDecimal maxBaseCost,
+                                  LocalDate startDate,
+                                  LocalDate endDate,
+                                  boolean applyAvailability,
+                                  int limit) {
+
+        var filter = filter(type, rooms, floor, minBaseCost, maxBaseCost, startDate, endDate, applyAvailability);
+        return createQuery(filter, Result.IDS, false, List.of(), Long.class)
+                .setMaxResults(limit)
+                .getResultList()
+                .size();
+    }
 
-        return new PageImpl<>(content, pageable, total);
+    @Override
+    public Stream<UnitResponse> streamMatching(UnitType type,
+                                               Integer rooms,
+                                               Integer floor,
+                                               BigDecimal minBaseCost,
+                                               BigDecimal maxBaseCost,
+                                               LocalDate startDate,
+                                               LocalDate endDate,
+                                               boolean applyAvailability,
+                                               BigDecimal markup) {
+
+        var filter = filter(type, rooms, floor, minBaseCost, maxBaseCost, startDate, endDate, applyAvailability);
+        return createQuery(filter, Result.PAGE, false, List.of(Sort.Order.asc("id")), UnitResponse.class)
+                .setParameter("markup", markup)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .getResultStream();
     }
 
-    private long count(CriteriaBuilder cb,
-                       UnitType type,
-                       Integer rooms,
-                       Integer floor,
-                       BigDecimal minBaseCost,
-                       BigDecimal maxBaseCost,
-                       LocalDate startDate,
-                       LocalDate endDate,
-                       boolean applyAvailability) {
-
-        var countQuery = cb.createQuery(Long.class);
-        var unitRoot = countQuery.from(Unit.class);
-
-        var predicates = buildPredicates(cb, countQuery, unitRoot, type, rooms, floor, minBaseCost, maxBaseCost, startDate, endDate, applyAvailability);
-        countQuery.select(cb.count(unitRoot)).where(predicates.toArray(new Predicate[0]));
-        return entityManager.createQuery(countQuery).getSingleResult();
+    private <T> TypedQuery<T> createQuery(Filter filter,
+                                          Result result,
+                                          boolean afterCursor,
+                                          List<Sort.Order> orders,
+                                          Class<T> resultType) {
+        orders.forEach(order -> entityManager.getMetamodel().entity(Unit.class).getAttribute(order.getProperty()));
+        var shape = new UnitSearchShape(result, filter.type() != null, filter.rooms() != null, filter.floor() != null,
+                filter.minBaseCost() != null, filter.maxBaseCost() != null, filter.availability(), afterCursor, orders);
+        var query = entityManager.createQuery(jpqlByShape.computeIfAbsent(shape, UnitSearchShape::toJpql), resultType)
+                .setFlushMode(FlushModeType.COMMIT)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        filter.bind(query);
+        return query;
     }
 
-    private List<Predicate> buildPredicates(CriteriaBuilder cb,
-                                            CriteriaQuery<?> query,
-                                            Root<Unit> unit,
-                                            UnitType type,
-                                            Integer rooms,
-                                            Integer floor,
-                                            BigDecimal minBaseCost,
-                                            BigDecimal maxBaseCost,
-                                            LocalDate startDate,
-                                            LocalDate endDate,
-                                            boolean applyAvailability) {
-        List<Predicate> predicates = new ArrayList<>();
-
-        if (type != null) {
-            predicates.add(cb.equal(unit.get("type"), type));
-        }
-        if (rooms != null) {
-            predicates.add(cb.equal(unit.get("rooms"), rooms));
-        }
-        if (floor != null) {
-            predicates.add(cb.equal(unit.get("floor"), floor));
-        }
-        if (minBaseCost != null) {
-            predicates.add(cb.greaterThanOrEqualTo(unit.get("baseCost"), minBaseCost));
-        }
-        if (maxBaseCost != null) {
-            predicates.add(cb.lessThanOrEqualTo(unit.get("baseCost"), maxBaseCost));
+    private Filter filter(UnitType type,
+                          Integer rooms,
+                          Integer floor,
+                          BigDecimal minBaseCost,
+                          BigDecimal maxBaseCost,
+                          LocalDate startDate,
+                          LocalDate endDate,
+                          boolean applyAvailability) {
+        if (!applyAvailability || startDate == null || endDate == null) {
+            return new Filter(type, rooms, floor, minBaseCost, maxBaseCost, null, null, null);
         }
+        return new Filter(type, rooms, floor, minBaseCost, maxBaseCost, startDate, endDate,
+                occupiedUnits(startDate, endDate));
+    }
 
-        if (applyAvailability && startDate != null && endDate != null) {
-            var bookingSubquery = query.subquery(Long.class);
-            var booking = bookingSubquery.from(Booking.class);
-            bookingSubquery.select(cb.literal(1L));
-
-            List<Predicate> bookingPredicates = new ArrayList<>();
-            bookingPredicates.add(cb.equal(booking.get("unit"), unit));
-            bookingPredicates.add(cb.notEqual(booking.get("status"), BookingStatus.CANCELLED));
-            bookingPredicates.add(cb.greaterThanOrEqualTo(booking.get("endDate"), startDate));
-            bookingPredicates.add(cb.lessThanOrEqualTo(booking.get("startDate"), endDate));
-
-            bookingSubquery.where(bookingPredicates.toArray(new Predicate[0]));
-            predicates.add(cb.not(cb.exists(bookingSubquery)));
+    /**
+     * Units the occupancy index knows to be occupied in the window, an empty set when none are, or {@code null} when
+     * the bookings table has to be checked instead.
+     */
+    private Set<Long> occupiedUnits(LocalDate startDate, LocalDate endDate) {
+        if (!occupancyIndex.covers(startDate, endDate)) {
+            return null;
         }
-
-        return predicates;
+        var occupied = occupancyIndex.occupiedUnits(startDate, endDate);
+        return occupied.size() <= MAX_EXCLUDED_UNITS ? occupied : null;
     }
 
-    private List<Order> toOrders(CriteriaBuilder cb, Root<Unit> unit, Sort sort) {
-        if (sort == null || sort.isUnsorted()) {
-            return List.of(cb.asc(unit.get("id")));
+    /**
+     * The bound values of a search. Dates are {@code null} without an availability window; {@code occupied} is
+     * {@code null} when availability is checked against the bookings table.
+     */
+    private record Filter(UnitType type,
+                          Integer rooms,
+                          Integer floor,
+                          BigDecimal minBaseCost,
+                          BigDecimal maxBaseCost,
+                          LocalDate startDate,
+                          LocalDate endDate,
+                          Set<Long> occupied) {
+
+        Availability availability() {
+            if (startDate == null || endDate == null) {
+                return Availability.NONE;
+            }
+            if (occupied == null) {
+                return Availability.NOT_EXISTS;
+            }
+            return occupied.isEmpty() ? Availability.NONE : Availability.EXCLUDED_UNITS;
         }
-        List<Order> orders = new ArrayList<>();
-        for (Sort.Order s : sort) {
-            Expression<?> expression = unit.get(s.getProperty());
-            orders.add(s.isAscending() ? cb.asc(expression) : cb.desc(expression));
+
+        void bind(TypedQuery<?> query) {
+            if (type != null) {
+                query.setParameter("type", type);
+            }
+            if (rooms != null) {
+                query.setParameter("rooms", rooms);
+            }
+            if (floor != null) {
+                query.setParameter("floor", floor);
+            }
+            if (minBaseCost != null) {
+                query.setParameter("minBaseCost", minBaseCost);
+            }
+            if (maxBaseCost != null) {
+                query.setParameter("maxBaseCost", maxBaseCost);
+            }
+            switch (availability()) {
+                case EXCLUDED_UNITS -> query.setParameter("occupied", occupied);
+                case NOT_EXISTS -> query.setParameter("startDate", startDate).setParameter("endDate", endDate);
+                case NONE -> {
+                }
+            }
         }
-        return orders;
     }
 }
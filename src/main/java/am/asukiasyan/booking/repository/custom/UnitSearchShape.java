@@ -0,0 +1,104 @@
+package am.asukiasyan.booking.repository.custom;
+
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Which filters, availability check, ordering and result kind a unit search uses. Searches of the same shape share
+ * one JPQL string, so Hibernate translates it once and the driver reuses its server-side prepared statement; only the
+ * bound values differ between requests.
+ */
+record UnitSearchShape(Result result,
+                       boolean type,
+                       boolean rooms,
+                       boolean floor,
+                       boolean minBaseCost,
+                       boolean maxBaseCost,
+                       Availability availability,
+                       boolean afterCursor,
+                       List<Sort.Order> orders) {
+
+    enum Result {
+        PAGE, KEYSET, COUNT, IDS
+    }
+
+    /**
+     * {@code EXCLUDED_UNITS} binds the occupied unit ids from the occupancy index; {@code NOT_EXISTS} checks the
+     * bookings table for ranges the index does not cover or when too many units are occupied to list.
+     */
+    enum Availability {
+        NONE, EXCLUDED_UNITS, NOT_EXISTS
+    }
+
+    /**
+     * Rows are constructed as responses directly; {@code :markup} is bound to the cost multiplier.
+     */
+    static final String SELECT_RESPONSE = "select new am.asukiasyan.booking.dto.UnitResponse(u.id, u.rooms, u.type,"
+            + " u.floor, u.description, u.baseCost, round(u.baseCost * :markup, 2), u.createdAt) from Unit u";
+
+    String toJpql() {
+        var jpql = new StringBuilder(switch (result) {
+            case COUNT -> "select count(u) from Unit u";
+            case IDS -> "select u.id from Unit u";
+            case PAGE, KEYSET -> SELECT_RESPONSE;
+        });
+        List<String> predicates = new ArrayList<>();
+        if (type) {
+            predicates.add("u.type = :type");
+        }
+        if (rooms) {
+            predicates.add("u.rooms = :rooms");
+        }
+        if (floor) {
+            predicates.add("u.floor = :floor");
+        }
+        if (minBaseCost) {
+            predicates.add("u.baseCost >= :minBaseCost");
+        }
+        if (maxBaseCost) {
+            predicates.add("u.baseCost <= :maxBaseCost");
+        }
+        switch (availability) {
+            case EXCLUDED_UNITS -> predicates.add("u.id not in :occupied");
+            // a literal status so the planner can match the partial index on active bookings
+            case NOT_EXISTS -> predicates.add("""
+                    not exists (select 1 from Booking b
+                                where b.unit = u
+                                  and b.status <> 'CANCELLED'
+                                  and b.endDate >= :startDate
+                                  and b.startDate <= :endDate)""");
+            case NONE -> {
+            }
+        }
+        if (afterCursor) {
+            predicates.add(keysetPredicate(orders.getFirst()));
+        }
+        if (!predicates.isEmpty()) {
+            jpql.append(" where ").append(String.join(" and ", predicates));
+        }
+        if (result == Result.PAGE || result == Result.KEYSET) {
+            var orderBy = new StringJoiner(", ", " order by ", "");
+            orders.forEach(order -> orderBy.add("u." + order.getProperty() + (order.isAscending() ? " asc" : " desc")));
+            jpql.append(orderBy);
+        }
+        return jpql.toString();
+    }
+
+    /**
+     * Expanded form of {@code (sortKey, id) > (:lastSortValue, :lastId)}. The leading {@code sortKey >= lastSortValue}
+     * bound lets the planner start an index range scan at the cursor.
+     */
+    private static String keysetPredicate(Sort.Order order) {
+        var after = order.isAscending() ? " > " : " < ";
+        var idAfter = "u.id" + after + ":lastId";
+        if ("id".equals(order.getProperty())) {
+            return idAfter;
+        }
+        var key = "u." + order.getProperty();
+        var bound = order.isAscending() ? " >= " : " <= ";
+        return "(" + key + bound + ":lastSortValue and (" + key + after + ":lastSortValue or " + idAfter + "))";
+    }
+}
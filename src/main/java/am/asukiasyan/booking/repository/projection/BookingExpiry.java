@@ -0,0 +1,6 @@
+package am.asukiasyan.booking.repository.projection;
+
+import java.time.Instant;
+
+public record BookingExpiry(Long bookingId, Instant expiresAt) {
+}
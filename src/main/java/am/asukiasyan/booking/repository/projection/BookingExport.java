@@ -0,0 +1,18 @@
+package am.asukiasyan.booking.repository.projection;
+
+import am.asukiasyan.booking.enums.BookingStatus;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+public record BookingExport(Long id,
+                            Long unitId,
+                            Long userId,
+                            LocalDate startDate,
+                            LocalDate endDate,
+                            BookingStatus status,
+                            BigDecimal totalCost,
+                            Instant createdAt,
+                            Instant updatedAt) {
+}
@@ -0,0 +1,6 @@
+package am.asukiasyan.booking.repository.projection;
+
+import java.time.LocalDate;
+
+public record BookingSpan(Long bookingId, Long unitId, LocalDate startDate, LocalDate endDate) {
+}
@@ -0,0 +1,13 @@
+package am.asukiasyan.booking.repository.projection;
+
+import am.asukiasyan.booking.enums.UnitEventType;
+
+import java.time.Instant;
+
+public record UnitEventExport(Long id,
+                              Long unitId,
+                              UnitEventType eventType,
+                              String details,
+                              Instant createdAt,
+                              Instant recordedAt) {
+}
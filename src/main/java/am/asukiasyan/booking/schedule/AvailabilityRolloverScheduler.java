@@ -0,0 +1,21 @@
+package am.asukiasyan.booking.schedule;
+
+import am.asukiasyan.booking.service.AvailabilityService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class AvailabilityRolloverScheduler {
+
+    /**
+     *  Runs right after midnight to move the per-day availability window forward
+     */
+    @Scheduled(cron = "5 0 0 * * *")
+    public void rollOver() {
+        availabilityService.rollOver();
+    }
+
+    private final AvailabilityService availabilityService;
+}
@@ -1,20 +1,41 @@
 package am.asukiasyan.booking.schedule;
 
+import am.asukiasyan.booking.expiry.BookingExpiryWheel;
 import am.asukiasyan.booking.service.BookingService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class BookingExpiryScheduler {
 
     /**
-     *  Runs each minute to clear expired bookings
+     *  Turns the expiry wheel every second and cancels bookings whose payment window just ended
+     */
+    @Scheduled(fixedDelay = 1000)
+    public void cancelDue() {
+        var due = expiryWheel.pollExpired(Instant.now());
+        if (due.isEmpty()) {
+            return;
+        }
+        try {
+            int cancelled = bookingService.cancelExpiredBookings(due);
+            log.info("Expiry wheel cancelled {} of {} due bookings", cancelled, due.size());
+        } catch (RuntimeException ex) {
+            log.error("Failed to cancel {} due bookings, retrying later", due.size(), ex);
+            expiryWheel.retry(due);
+        }
+    }
+
+    /**
+     *  Safety net for bookings the wheel does not know about, e.g. ones created by another instance
      */
-    @Scheduled(cron = "0 * * * * *")
+    @Scheduled(cron = "${booking.expiry.sweep-cron:0 */30 * * * *}")
     public void cancelExpired() {
         int cancelled = bookingService.cancelExpiredBookings();
         if (cancelled > 0) {
@@ -22,5 +43,6 @@ public class BookingExpiryScheduler {
         }
     }
 
+    private final BookingExpiryWheel expiryWheel;
     private final BookingService bookingService;
 }
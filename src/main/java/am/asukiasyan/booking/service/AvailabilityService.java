@@ -1,13 +1,22 @@
 package am.asukiasyan.booking.service;
 
 import am.asukiasyan.booking.cache.RedisAvailabilityCache;
+import am.asukiasyan.booking.config.CacheConfig;
+import am.asukiasyan.booking.exception.BadRequestException;
 import am.asukiasyan.booking.repository.UnitRepository;
+import am.asukiasyan.booking.repository.projection.BookingSpan;
+import am.asukiasyan.booking.util.TransactionHooks;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.util.stream.IntStream;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 
 @Service
 @Slf4j
@@ -17,42 +26,137 @@ public class AvailabilityService {
     private final RedisAvailabilityCache cache;
     private final UnitRepository unitRepository;
 
-    public void initialize() {
-        if (!cache.hasValue()) {
-            log.info("Initializing availability cache");
-            refreshFromDatabase();
-        }
-    }
+    @Value("${booking.availability.horizon-days:90}")
+    private int horizonDays = 90;
 
+    /**
+     * A new unit is available on every tracked day.
+     */
     public void increase() {
-        initialize();
-        cache.increment();
-        log.info("Availability increased to {}", cache.get());
+        increase(1);
+    }
+
+    public void increase(int newUnits) {
+        afterCommit(() -> {
+            var updated = cache.adjustAll(newUnits);
+            log.debug("Availability increased by {} on {} days", newUnits, updated);
+        });
     }
 
-    public void decreaseIfPossible() {
-        initialize();
-        cache.decrement();
-        log.info("Availability decreased to {}", cache.get());
+    public void increase(LocalDate startDate, LocalDate endDate) {
+        adjust(startDate, endDate, 1);
     }
 
-    public void refreshFromDatabase() {
-        var count = (int) unitRepository.countAvailableToday(LocalDate.now());
-        cache.update(count);
-        log.info("Availability refreshed from DB value={}", count);
+    public void increase(Collection<BookingSpan> released) {
+        adjust(released, 1);
     }
 
-    public int getAvailableUnits() {
-        initialize();
-        return cache.get();
+    public void decrease(LocalDate startDate, LocalDate endDate) {
+        adjust(startDate, endDate, -1);
+    }
+
+    public void decrease(Collection<BookingSpan> booked) {
+        adjust(booked, -1);
+    }
+
+    /**
+     * Served from the in-process near cache when possible; Redis change notifications evict the cached day.
+     */
+    @Cacheable(cacheNames = CacheConfig.AVAILABILITY_CACHE, key = "#date")
+    public int getAvailableUnits(LocalDate date) {
+        if (!isWithinHorizon(date)) {
+            throw new BadRequestException("date must be within the next " + horizonDays + " days");
+        }
+        var value = cache.find(date);
+        if (value == null) {
+            return (int) initializeFromDatabase(date);
+        }
+        return value;
+    }
+
+    /**
+     * Drops days that have passed, seeds the days that entered the horizon and recounts the others from the database.
+     * The recount repairs counters left off by updates that failed after their transaction committed; a booking that
+     * commits while its day is recounted can still be missed until the next rollover.
+     */
+    public void rollOver() {
+        var today = LocalDate.now();
+        var removed = cache.removeBefore(today);
+        int seeded = 0;
+        int refreshed = 0;
+        for (var date = today; isWithinHorizon(date); date = date.plusDays(1)) {
+            if (cache.find(date) == null) {
+                initializeFromDatabase(date);
+                seeded++;
+            } else {
+                refreshFromDatabase(date);
+                refreshed++;
+            }
+        }
+        log.info("Availability rolled over removed={} seeded={} refreshed={}", removed, seeded, refreshed);
     }
 
-    public void increaseBy(int count) {
-        if (count <= 0) {
+    private void adjust(LocalDate startDate, LocalDate endDate, long delta) {
+        Map<LocalDate, Long> deltas = new TreeMap<>();
+        daysInHorizon(startDate, endDate, date -> deltas.put(date, delta));
+        if (deltas.isEmpty()) {
             return;
         }
-        initialize();
-        IntStream.range(0, count).forEach(i -> cache.increment());
-        log.info("Availability increased by {} to {}", count, cache.get());
+        afterCommit(() -> {
+            var updated = cache.adjust(deltas);
+            log.debug("Availability adjusted by {} from {} to {} days={}", delta, startDate, endDate, updated);
+        });
+    }
+
+    private void adjust(Collection<BookingSpan> spans, long delta) {
+        Map<LocalDate, Long> deltas = new TreeMap<>();
+        spans.forEach(span -> daysInHorizon(span.startDate(), span.endDate(), date -> deltas.merge(date, delta, Long::sum)));
+        afterCommit(() -> {
+            var updated = cache.adjust(deltas);
+            log.debug("Availability adjusted by {} for {} bookings on {} days", delta, spans.size(), updated);
+        });
+    }
+
+    /**
+     * Counters follow committed data only. The change has committed by the time Redis is updated, so a failure is
+     * logged rather than thrown and the counters stay off until {@link #rollOver()} recounts them.
+     */
+    private void afterCommit(Runnable update) {
+        TransactionHooks.afterCommit(() -> {
+            try {
+                update.run();
+            } catch (RuntimeException ex) {
+                log.error("Availability counters not updated, off until the next rollover: {}", ex.getMessage());
+            }
+        });
+    }
+
+    private void daysInHorizon(LocalDate startDate, LocalDate endDate, Consumer<LocalDate> action) {
+        var today = LocalDate.now();
+        var from = startDate.isBefore(today) ? today : startDate;
+        for (var date = from; !date.isAfter(endDate) && isWithinHorizon(date); date = date.plusDays(1)) {
+            action.accept(date);
+        }
+    }
+
+    private boolean isWithinHorizon(LocalDate date) {
+        var today = LocalDate.now();
+        return !date.isBefore(today) && date.isBefore(today.plusDays(horizonDays));
+    }
+
+    private void refreshFromDatabase(LocalDate date) {
+        var count = (int) unitRepository.countAvailableToday(date);
+        cache.update(date, count);
+        log.debug("Availability refreshed from DB date={} value={}", date, count);
+    }
+
+    /**
+     * Seeds a missing day from the database unless another writer seeded it first.
+     */
+    private long initializeFromDatabase(LocalDate date) {
+        var count = (int) unitRepository.countAvailableToday(date);
+        var value = cache.initializeIfAbsent(date, count);
+        log.info("Initialized availability cache from DB date={} value={}", date, value);
+        return value;
     }
 }
@@ -1,13 +1,20 @@
 package am.asukiasyan.booking.service;
 
+import am.asukiasyan.booking.availability.OccupancyService;
+import am.asukiasyan.booking.cache.UnitSearchCache;
 import am.asukiasyan.booking.domain.Booking;
 import am.asukiasyan.booking.domain.Payment;
 import am.asukiasyan.booking.domain.Unit;
 import am.asukiasyan.booking.domain.User;
+import am.asukiasyan.booking.dto.BatchBookingError;
+import am.asukiasyan.booking.dto.BatchBookingRequest;
+import am.asukiasyan.booking.dto.BatchBookingResponse;
 import am.asukiasyan.booking.dto.BookingRequest;
 import am.asukiasyan.booking.dto.BookingResponse;
 import am.asukiasyan.booking.exception.ConflictException;
+import am.asukiasyan.booking.expiry.BookingExpiryWheel;
 import am.asukiasyan.booking.exception.NotFoundException;
+import am.asukiasyan.booking.enums.BatchMode;
 import am.asukiasyan.booking.enums.BookingStatus;
 import am.asukiasyan.booking.enums.PaymentStatus;
 import am.asukiasyan.booking.enums.UnitEventType;
@@ -15,15 +22,33 @@ import am.asukiasyan.booking.repository.BookingRepository;
 import am.asukiasyan.booking.repository.PaymentRepository;
 import am.asukiasyan.booking.repository.UnitRepository;
 import am.asukiasyan.booking.repository.UserRepository;
+import am.asukiasyan.booking.repository.projection.BookingSpan;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Service
 @RequiredArgsConstructor
@@ -31,6 +56,12 @@ import java.time.LocalDate;
 public class BookingService {
 
     private static final Duration PAYMENT_WINDOW = Duration.ofMinutes(15);
+    private static final String EXCLUSION_VIOLATION = "23P01";
+    private static final String UNAVAILABLE_MESSAGE = "Unit is unavailable for the selected dates";
+    private static final String BOOKED_DETAILS = "Booking created and pending payment";
+    private static final String CONFLICTS_METRIC = "booking.conflicts";
+    private static final String EXPIRY_DURATION_METRIC = "booking.expiry.duration";
+    private static final String EXPIRY_BATCH_METRIC = "booking.expiry.batch.size";
 
     private final BookingRepository bookingRepository;
     private final UnitRepository unitRepository;
@@ -39,27 +70,115 @@ public class BookingService {
     private final UnitService unitService;
     private final UnitEventService unitEventService;
     private final AvailabilityService availabilityService;
+    private final OccupancyService occupancyService;
+    private final BookingExpiryWheel expiryWheel;
+    private final UnitSearchCache unitSearchCache;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
     private static final String TTL_CANCEL_DETAILS = "Cancelled by TTL";
+    private static final int EXPIRY_CHUNK_SIZE = 500;
+    private static final int BATCH_ATTEMPTS = 3;
 
     @Transactional
+    @Timed("booking.create")
     public BookingResponse createBooking(BookingRequest request) {
-        log.info("Creating booking unitId={} userId={} start={} end={}",
+        log.debug("Creating booking unitId={} userId={} start={} end={}",
                 request.unitId(), request.userId(), request.startDate(), request.endDate());
-        var unit = loadUnitForUpdate(request.unitId());
+        var unit = loadUnit(request.unitId());
         ensureAvailable(unit, request.startDate(), request.endDate());
 
         var user = loadUser(request.userId());
-        var booking = bookingRepository.save(buildBooking(unit, user, request.startDate(), request.endDate()));
+        var booking = insertBooking(buildBooking(unit, user, request.startDate(), request.endDate()));
         var payment = paymentRepository.save(buildPendingPayment(booking));
+        expiryWheel.register(booking.getId(), booking.getExpiresAt());
 
-        unitEventService.recordEvent(unit, UnitEventType.BOOKED, "Booking created and pending payment");
-        adjustAvailabilityForToday(booking.getStartDate(), booking.getEndDate(), availabilityService::decreaseIfPossible);
+        unitEventService.recordEvent(unit, UnitEventType.BOOKED, BOOKED_DETAILS);
+        availabilityService.decrease(booking.getStartDate(), booking.getEndDate());
+        unitSearchCache.evictBooking(unit, booking.getStartDate(), booking.getEndDate());
 
         log.info("Booking created id={} paymentId={}", booking.getId(), payment.getId());
         return toResponse(booking, payment);
     }
 
+    /**
+     * Books many units in one transaction. The units are locked in id order and the rows are inserted in unit order,
+     * so concurrent batches over overlapping units queue up behind each other, and overlaps for the whole batch are
+     * checked with one query. Single bookings take no unit lock, so one can still commit an overlapping range between
+     * that query and the insert; the exclusion constraint then rejects the insert and the whole transaction rolls
+     * back. In {@link BatchMode#ALL_OR_NOTHING} mode this, like any rejected entry, fails the batch. In
+     * {@link BatchMode#BEST_EFFORT} mode rejected entries are reported and the rest are booked; a batch that lost such
+     * a race is retried up to {@value #BATCH_ATTEMPTS} times in a new transaction, whose overlap query sees the
+     * winning booking and rejects only the entries it overlaps.
+     */
+    @Timed("booking.create.batch")
+    public BatchBookingResponse createBookings(BatchBookingRequest request) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> bookBatch(request));
+            } catch (BatchOverlapException ex) {
+                if (attempt == BATCH_ATTEMPTS) {
+                    log.warn("Booking batch still overlapping after {} attempts size={}", attempt, request.bookings().size());
+                    throw new ConflictException(UNAVAILABLE_MESSAGE);
+                }
+                log.debug("Booking batch lost a race with a concurrent booking, retrying attempt={}", attempt);
+            }
+        }
+    }
+
+    private BatchBookingResponse bookBatch(BatchBookingRequest request) {
+        var requests = request.bookings();
+        log.debug("Creating booking batch size={} mode={}", requests.size(), request.mode());
+        var unitIds = requests.stream().map(BookingRequest::unitId).distinct().toList();
+        var units = unitRepository.lockAllByIdOrderById(unitIds).stream()
+                .collect(Collectors.toMap(Unit::getId, Function.identity()));
+        var users = userRepository.findAllById(requests.stream().map(BookingRequest::userId).distinct().toList()).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        var taken = activeSpansByUnit(units.keySet(), requests);
+
+        List<BatchBookingError> rejected = new ArrayList<>();
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            var item = requests.get(i);
+            var error = rejectionOf(item, units, users, taken);
+            if (error != null) {
+                rejected.add(new BatchBookingError(i, item.unitId(), error));
+                continue;
+            }
+            taken.computeIfAbsent(item.unitId(), id -> new ArrayList<>())
+                    .add(new BookingSpan(null, item.unitId(), item.startDate(), item.endDate()));
+            accepted.add(i);
+        }
+        if (request.mode() == BatchMode.ALL_OR_NOTHING && !rejected.isEmpty()) {
+            log.warn("Booking batch rejected size={} rejected={}", requests.size(), rejected.size());
+            throw new ConflictException(rejected.stream()
+                    .map(error -> "bookings[" + error.index() + "]: " + error.message())
+                    .collect(Collectors.joining("; ")));
+        }
+
+        var bookings = accepted.stream()
+                .sorted(Comparator.comparing((Integer i) -> requests.get(i).unitId())
+                        .thenComparing(i -> requests.get(i).startDate()))
+                .map(i -> buildBooking(units.get(requests.get(i).unitId()), users.get(requests.get(i).userId()),
+                        requests.get(i).startDate(), requests.get(i).endDate()))
+                .toList();
+        bookings.forEach(booking -> occupancyService.claim(unitIdOf(booking), booking.getStartDate(), booking.getEndDate()));
+        var saved = insertBookings(bookings, request.mode());
+        var payments = paymentRepository.saveAll(saved.stream().map(this::buildPendingPayment).toList());
+
+        saved.forEach(booking -> expiryWheel.register(booking.getId(), booking.getExpiresAt()));
+        unitEventService.recordEvents(saved.stream().map(this::unitIdOf).toList(), UnitEventType.BOOKED, BOOKED_DETAILS);
+        var spans = saved.stream().map(this::spanOf).toList();
+        availabilityService.decrease(spans);
+        unitSearchCache.evictBookings(spans);
+
+        log.info("Booking batch created booked={} rejected={}", saved.size(), rejected.size());
+        return new BatchBookingResponse(
+                IntStream.range(0, saved.size()).mapToObj(i -> toResponse(saved.get(i), payments.get(i))).toList(),
+                rejected);
+    }
+
     @Transactional
+    @Timed("booking.cancel")
     public BookingResponse cancelBooking(Long bookingId) {
         var booking = findBooking(bookingId);
         var payment = findPaymentOrThrow(bookingId);
@@ -68,7 +187,7 @@ public class BookingService {
             return toResponse(booking, payment);
         }
 
-        log.info("Cancelling booking id={}", bookingId);
+        log.debug("Cancelling booking id={}", bookingId);
         booking.setStatus(BookingStatus.CANCELLED);
         booking.setUpdatedAt(Instant.now());
         booking.setExpiresAt(null);
@@ -78,33 +197,74 @@ public class BookingService {
         paymentRepository.save(payment);
 
         unitEventService.recordEvent(saved.getUnit(), UnitEventType.CANCELLED, "Booking cancelled");
-        adjustAvailabilityForToday(booking.getStartDate(), booking.getEndDate(), availabilityService::increase);
+        occupancyService.release(saved.getUnit().getId(), saved.getStartDate(), saved.getEndDate());
+        expiryWheel.unregister(bookingId);
+        availabilityService.increase(booking.getStartDate(), booking.getEndDate());
+        unitSearchCache.evictBooking(saved.getUnit(), saved.getStartDate(), saved.getEndDate());
         log.info("Booking cancelled id={} paymentId={}", bookingId, payment.getId());
         return toResponse(saved, payment);
     }
 
-    @Transactional
+    /**
+     * Drains expired bookings in chunks of {@value #EXPIRY_CHUNK_SIZE}, each in its own transaction. Rows locked by
+     * another instance are skipped, so several instances can drain the backlog side by side.
+     */
     public int cancelExpiredBookings() {
-        var expired = bookingRepository.findExpiredBookings(Instant.now());
+        var sample = Timer.start(meterRegistry);
+        int total = 0;
+        int cancelled;
+        do {
+            cancelled = Objects.requireNonNull(transactionTemplate.execute(status ->
+                    cancelClaimed(bookingRepository.claimExpiredBookings(Instant.now(), EXPIRY_CHUNK_SIZE))));
+            total += cancelled;
+        } while (cancelled == EXPIRY_CHUNK_SIZE);
+        sample.stop(meterRegistry.timer(EXPIRY_DURATION_METRIC, "trigger", "sweep"));
+        if (total > 0) {
+            log.info("Expired booking cancellation run completed; cancelled={}", total);
+        }
+        return total;
+    }
+
+    /**
+     * Cancels the given bookings if they are still pending and past their payment window.
+     */
+    @Transactional
+    public int cancelExpiredBookings(Collection<Long> bookingIds) {
+        if (bookingIds.isEmpty()) {
+            return 0;
+        }
+        var sample = Timer.start(meterRegistry);
+        var cancelled = cancelClaimed(bookingRepository.claimExpiredBookingsByIds(bookingIds, Instant.now()));
+        sample.stop(meterRegistry.timer(EXPIRY_DURATION_METRIC, "trigger", "wheel"));
+        return cancelled;
+    }
+
+    private int cancelClaimed(List<Booking> expired) {
         if (expired.isEmpty()) {
             return 0;
         }
+        meterRegistry.summary(EXPIRY_BATCH_METRIC).record(expired.size());
 
-        int todaysCancellations = 0;
-        for (Booking booking : expired) {
-            if (affectsToday(booking.getStartDate(), booking.getEndDate())) {
-                todaysCancellations++;
-            }
-            cancelExpiredBooking(booking);
+        var bookingIds = expired.stream().map(Booking::getId).toList();
+        bookingRepository.updateStatus(bookingIds, BookingStatus.CANCELLED, Instant.now());
+        int payments = paymentRepository.updateStatusByBookingIds(bookingIds, PaymentStatus.CANCELLED);
+        if (payments < bookingIds.size()) {
+            log.warn("Payment records missing for {} expired bookings", bookingIds.size() - payments);
         }
-        if (todaysCancellations > 0) {
-            availabilityService.increaseBy(todaysCancellations);
+        unitEventService.recordEvents(expired.stream().map(this::unitIdOf).toList(), UnitEventType.CANCELLED, TTL_CANCEL_DETAILS);
+
+        for (Booking booking : expired) {
+            occupancyService.release(unitIdOf(booking), booking.getStartDate(), booking.getEndDate());
+            expiryWheel.unregister(booking.getId());
         }
-        log.info("Expired booking cancellation run completed; cancelled={}", expired.size());
+        var spans = expired.stream().map(this::spanOf).toList();
+        availabilityService.increase(spans);
+        unitSearchCache.evictBookings(spans);
         return expired.size();
     }
 
     @Transactional
+    @Timed("booking.payment.confirm")
     public BookingResponse confirmPayment(Long bookingId) {
         var booking = findBooking(bookingId);
         if (booking.getStatus() == BookingStatus.CANCELLED) {
@@ -112,7 +272,7 @@ public class BookingService {
         }
         assertNotExpired(booking);
 
-        log.info("Confirming payment for booking id={}", bookingId);
+        log.debug("Confirming payment for booking id={}", bookingId);
         booking.setStatus(BookingStatus.CONFIRMED);
         booking.setUpdatedAt(Instant.now());
         booking.setExpiresAt(null);
@@ -122,14 +282,15 @@ public class BookingService {
         payment.setStatus(PaymentStatus.PAID);
         payment.setPaidAt(Instant.now());
         paymentRepository.save(payment);
+        expiryWheel.unregister(bookingId);
 
         unitEventService.recordEvent(saved.getUnit(), UnitEventType.PAYMENT_CONFIRMED, "Payment received");
         log.info("Payment confirmed for booking id={} paymentId={}", bookingId, payment.getId());
         return toResponse(saved, payment);
     }
 
-    private Unit loadUnitForUpdate(Long unitId) {
-        return unitRepository.findByIdForUpdate(unitId)
+    private Unit loadUnit(Long unitId) {
+        return unitRepository.findById(unitId)
                 .orElseThrow(() -> new NotFoundException("Unit not found"));
     }
 
@@ -139,10 +300,90 @@ public class BookingService {
     }
 
     private void ensureAvailable(Unit unit, LocalDate start, LocalDate end) {
-        if (bookingRepository.existsActiveBooking(unit.getId(), start, end)) {
+        if (!occupancyService.reserve(unit.getId(), start, end)) {
             log.warn("Availability check failed for unitId={} start={} end={}", unit.getId(), start, end);
-            throw new ConflictException("Unit is unavailable for the selected dates");
+            countConflict("occupancy");
+            throw new ConflictException(UNAVAILABLE_MESSAGE);
+        }
+    }
+
+    /**
+     * Inserts without holding the unit row lock; the bookings exclusion constraint rejects overlapping inserts
+     * that slipped past {@link #ensureAvailable}.
+     */
+    private Booking insertBooking(Booking booking) {
+        try {
+            return bookingRepository.saveAndFlush(booking);
+        } catch (DataIntegrityViolationException ex) {
+            if (isExclusionViolation(ex)) {
+                log.warn("Overlap rejected by database for unitId={} start={} end={}",
+                        booking.getUnit().getId(), booking.getStartDate(), booking.getEndDate());
+                countConflict("constraint");
+                throw new ConflictException(UNAVAILABLE_MESSAGE);
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Postgres aborts the transaction on the first violating row, so a best-effort batch cannot skip just that row
+     * here; it is rolled back as a whole and retried by {@link #createBookings}.
+     */
+    private List<Booking> insertBookings(List<Booking> bookings, BatchMode mode) {
+        try {
+            return bookingRepository.saveAllAndFlush(bookings);
+        } catch (DataIntegrityViolationException ex) {
+            if (isExclusionViolation(ex)) {
+                log.warn("Overlap in booking batch rejected by database size={}", bookings.size());
+                countConflict("constraint");
+                if (mode == BatchMode.BEST_EFFORT) {
+                    throw new BatchOverlapException();
+                }
+                throw new ConflictException(UNAVAILABLE_MESSAGE);
+            }
+            throw ex;
+        }
+    }
+
+    private Map<Long, List<BookingSpan>> activeSpansByUnit(Collection<Long> unitIds, List<BookingRequest> requests) {
+        Map<Long, List<BookingSpan>> spans = new HashMap<>();
+        if (unitIds.isEmpty()) {
+            return spans;
+        }
+        var from = requests.stream().map(BookingRequest::startDate).min(Comparator.naturalOrder()).orElseThrow();
+        var to = requests.stream().map(BookingRequest::endDate).max(Comparator.naturalOrder()).orElseThrow();
+        bookingRepository.findActiveSpans(unitIds, from, to)
+                .forEach(span -> spans.computeIfAbsent(span.unitId(), id -> new ArrayList<>()).add(span));
+        return spans;
+    }
+
+    private String rejectionOf(BookingRequest request,
+                               Map<Long, Unit> units,
+                               Map<Long, User> users,
+                               Map<Long, List<BookingSpan>> taken) {
+        if (!units.containsKey(request.unitId())) {
+            return "Unit not found";
+        }
+        if (!users.containsKey(request.userId())) {
+            return "User not found";
+        }
+        var overlaps = taken.getOrDefault(request.unitId(), List.of()).stream()
+                .anyMatch(span -> !span.endDate().isBefore(request.startDate())
+                        && !span.startDate().isAfter(request.endDate()));
+        if (overlaps) {
+            countConflict("batch");
+            return UNAVAILABLE_MESSAGE;
         }
+        return null;
+    }
+
+    private void countConflict(String reason) {
+        meterRegistry.counter(CONFLICTS_METRIC, "reason", reason).increment();
+    }
+
+    private boolean isExclusionViolation(DataIntegrityViolationException ex) {
+        return NestedExceptionUtils.getMostSpecificCause(ex) instanceof SQLException sqlException
+                && EXCLUSION_VIOLATION.equals(sqlException.getSQLState());
     }
 
     private Booking buildBooking(Unit unit, User user, LocalDate start, LocalDate end) {
@@ -191,20 +432,6 @@ public class BookingService {
         return unitService.addMarkup(baseCost);
     }
 
-    private void adjustAvailabilityForToday(LocalDate startDate, LocalDate endDate, Runnable adjustment) {
-        if (affectsToday(startDate, endDate)) {
-            adjustment.run();
-        }
-    }
-
-    private boolean affectsToday(LocalDate startDate, LocalDate endDate) {
-        if (startDate == null || endDate == null) {
-            return false;
-        }
-        var today = LocalDate.now();
-        return !startDate.isAfter(today) && !endDate.isBefore(today);
-    }
-
     private void assertNotExpired(Booking booking) {
         var expiresAt = booking.getExpiresAt();
         if (expiresAt != null && !expiresAt.isAfter(Instant.now())) {
@@ -212,18 +439,21 @@ public class BookingService {
         }
     }
 
-    private void cancelExpiredBooking(Booking booking) {
-        booking.setStatus(BookingStatus.CANCELLED);
-        booking.setUpdatedAt(Instant.now());
-        booking.setExpiresAt(null);
-        bookingRepository.save(booking);
+    private Long unitIdOf(Booking booking) {
+        return booking.getUnit().getId();
+    }
 
-        paymentRepository.findByBookingId(booking.getId())
-                .ifPresentOrElse(payment -> {
-                    payment.setStatus(PaymentStatus.CANCELLED);
-                    paymentRepository.save(payment);
-                }, () -> log.warn("Payment record missing for expired booking id={}", booking.getId()));
+    private BookingSpan spanOf(Booking booking) {
+        return new BookingSpan(booking.getId(), unitIdOf(booking), booking.getStartDate(), booking.getEndDate());
+    }
+
+    /**
+     * Rolls back a best-effort batch whose insert hit a booking committed after the overlap query.
+     */
+    private static final class BatchOverlapException extends RuntimeException {
 
-        unitEventService.recordEvent(booking.getUnit(), UnitEventType.CANCELLED, TTL_CANCEL_DETAILS);
+        private BatchOverlapException() {
+            super(UNAVAILABLE_MESSAGE, null, false, false);
+        }
     }
 }
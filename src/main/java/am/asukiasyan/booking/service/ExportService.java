@@ -0,0 +1,166 @@
+package am.asukiasyan.booking.service;
+
+import am.asukiasyan.booking.dto.UnitResponse;
+import am.asukiasyan.booking.dto.UnitSearchRequest;
+import am.asukiasyan.booking.enums.ExportFormat;
+import am.asukiasyan.booking.repository.BookingRepository;
+import am.asukiasyan.booking.repository.UnitEventRepository;
+import am.asukiasyan.booking.repository.projection.BookingExport;
+import am.asukiasyan.booking.repository.projection.UnitEventExport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Writes units, bookings and unit events to an output stream as NDJSON or CSV. Rows are projected into records, read
+ * through a database cursor and written one at a time, so memory stays flat however many rows are exported. Each
+ * export is a single query in a read-only transaction and therefore sees one consistent snapshot.
+ * <p>
+ * Bookings and unit events are pulled incrementally from a timestamp watermark rather than from the last id: ids
+ * are handed out in blocks and rows commit out of id order, so an id cursor would skip rows that commit late. The
+ * timestamps do not follow commit order exactly either, so every pull re-reads {@code booking.export.overlap} before
+ * the given watermark and consumers deduplicate by id.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportService {
+
+    static final List<String> UNIT_COLUMNS =
+            List.of("id", "rooms", "type", "floor", "description", "baseCost", "finalCost", "createdAt");
+    static final List<String> BOOKING_COLUMNS =
+            List.of("id", "unitId", "userId", "startDate", "endDate", "status", "totalCost", "createdAt", "updatedAt");
+    static final List<String> UNIT_EVENT_COLUMNS =
+            List.of("id", "unitId", "eventType", "details", "createdAt", "recordedAt");
+
+    private final UnitService unitService;
+    private final BookingRepository bookingRepository;
+    private final UnitEventRepository unitEventRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Must cover the longest writing transaction, clock skew between instances and replica lag.
+     */
+    @Value("${booking.export.overlap:5m}")
+    private Duration overlap = Duration.ofMinutes(5);
+
+    /**
+     * Exports every unit matching the request's filters in id order; paging and sorting parameters are ignored.
+     *
+     * @return the number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long exportUnits(UnitSearchRequest request, ExportFormat format, OutputStream output) throws IOException {
+        try (var units = unitService.stream(request)) {
+            var written = write(units, format, UNIT_COLUMNS, ExportService::unitRow, output);
+            log.info("Unit export completed format={} rows={}", format, written);
+            return written;
+        }
+    }
+
+    /**
+     * Exports live and archived bookings updated since the watermark, minus the overlap, in (updatedAt, id) order.
+     * Consumers pass the largest {@code updatedAt} they have seen, or {@code null} for everything.
+     */
+    @Transactional(readOnly = true)
+    public long exportBookings(Instant since, ExportFormat format, OutputStream output) throws IOException {
+        try (var bookings = bookingRepository.streamChangedSince(from(since))) {
+            var written = write(bookings, format, BOOKING_COLUMNS, ExportService::bookingRow, output);
+            log.info("Booking export completed format={} since={} rows={}", format, since, written);
+            return written;
+        }
+    }
+
+    /**
+     * Exports unit events recorded since the watermark, minus the overlap, in (recordedAt, id) order. Consumers pass
+     * the largest {@code recordedAt} they have seen, or {@code null} for everything.
+     */
+    @Transactional(readOnly = true)
+    public long exportUnitEvents(Instant since, ExportFormat format, OutputStream output) throws IOException {
+        try (var events = unitEventRepository.streamRecordedSince(from(since))) {
+            var written = write(events, format, UNIT_EVENT_COLUMNS, ExportService::unitEventRow, output);
+            log.info("Unit event export completed format={} since={} rows={}", format, since, written);
+            return written;
+        }
+    }
+
+    private Instant from(Instant since) {
+        return since == null ? Instant.EPOCH : since.minus(overlap);
+    }
+
+    /**
+     * Writes one line per row. The output is buffered but neither flushed per row nor closed here; the servlet
+     * container sends full buffers as they fill and completes the response.
+     */
+    private <T> long write(Stream<T> rows,
+                           ExportFormat format,
+                           List<String> columns,
+                           Function<T, List<?>> csvRow,
+                           OutputStream output) throws IOException {
+        var writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        if (format == ExportFormat.CSV) {
+            writer.write(toCsv(columns));
+            writer.write('\n');
+        }
+        long written = 0;
+        for (var iterator = rows.iterator(); iterator.hasNext(); ) {
+            var row = iterator.next();
+            writer.write(format == ExportFormat.NDJSON ? objectMapper.writeValueAsString(row) : toCsv(csvRow.apply(row)));
+            writer.write('\n');
+            written++;
+        }
+        writer.flush();
+        return written;
+    }
+
+    /**
+     * Joins one CSV record, quoting fields that contain a comma, quote or line break and doubling inner quotes; the
+     * inverse of {@link UnitImportService#splitCsv(String)}. Nulls become empty fields.
+     */
+    static String toCsv(List<?> fields) {
+        var record = new StringJoiner(",");
+        for (var field : fields) {
+            var value = switch (field) {
+                case null -> "";
+                case BigDecimal decimal -> decimal.toPlainString();
+                default -> field.toString();
+            };
+            var quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+            record.add(quote ? '"' + value.replace("\"", "\"\"") + '"' : value);
+        }
+        return record.toString();
+    }
+
+    private static List<?> unitRow(UnitResponse unit) {
+        return Arrays.asList(unit.id(), unit.rooms(), unit.type(), unit.floor(), unit.description(), unit.baseCost(),
+                unit.finalCost(), unit.createdAt());
+    }
+
+    private static List<?> bookingRow(BookingExport booking) {
+        return Arrays.asList(booking.id(), booking.unitId(), booking.userId(), booking.startDate(), booking.endDate(),
+                booking.status(), booking.totalCost(), booking.createdAt(), booking.updatedAt());
+    }
+
+    private static List<?> unitEventRow(UnitEventExport event) {
+        return Arrays.asList(event.id(), event.unitId(), event.eventType(), event.details(), event.createdAt(),
+                event.recordedAt());
+    }
+}
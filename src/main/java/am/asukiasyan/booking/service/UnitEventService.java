@@ -1,28 +1,45 @@
 package am.asukiasyan.booking.service;
 
 import am.asukiasyan.booking.domain.Unit;
-import am.asukiasyan.booking.domain.UnitEvent;
 import am.asukiasyan.booking.enums.UnitEventType;
-import am.asukiasyan.booking.repository.UnitEventRepository;
+import am.asukiasyan.booking.event.PendingUnitEvent;
+import am.asukiasyan.booking.event.UnitEventWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Records the unit audit trail. Events are handed to {@link UnitEventWriter}, which adds a transaction's events to
+ * the outbox in one batch as it commits and moves them to {@code unit_events} later, so a booking transaction pays
+ * one batched insert rather than an identity insert per event.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class UnitEventService {
 
-    private final UnitEventRepository unitEventRepository;
+    private final UnitEventWriter unitEventWriter;
 
-    @Transactional
     public void recordEvent(Unit unit, UnitEventType type, String details) {
-        unitEventRepository.save(UnitEvent.builder()
-                .unit(unit)
-                .eventType(type)
-                .details(details)
-                .build());
-        log.info("Recorded unit event unitId={} type={} details={}", unit.getId(), type, details);
+        unitEventWriter.append(List.of(new PendingUnitEvent(unit.getId(), type, details, Instant.now())));
+        log.debug("Recorded unit event unitId={} type={} details={}", unit.getId(), type, details);
+    }
+
+    /**
+     * Records the same event for each unit id.
+     */
+    public void recordEvents(Collection<Long> unitIds, UnitEventType type, String details) {
+        if (unitIds.isEmpty()) {
+            return;
+        }
+        var createdAt = Instant.now();
+        unitEventWriter.append(unitIds.stream()
+                .map(unitId -> new PendingUnitEvent(unitId, type, details, createdAt))
+                .toList());
+        log.debug("Recorded unit events count={} type={} details={}", unitIds.size(), type, details);
     }
 }
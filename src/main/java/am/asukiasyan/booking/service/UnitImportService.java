@@ -0,0 +1,219 @@
+package am.asukiasyan.booking.service;
+
+import am.asukiasyan.booking.cache.UnitSearchCache;
+import am.asukiasyan.booking.domain.Unit;
+import am.asukiasyan.booking.dto.UnitImportError;
+import am.asukiasyan.booking.dto.UnitImportResponse;
+import am.asukiasyan.booking.dto.UnitRequest;
+import am.asukiasyan.booking.enums.ImportFormat;
+import am.asukiasyan.booking.enums.UnitEventType;
+import am.asukiasyan.booking.enums.UnitType;
+import am.asukiasyan.booking.exception.BadRequestException;
+import am.asukiasyan.booking.repository.UnitRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Imports units from an NDJSON or CSV stream one line at a time, so memory stays bounded by the chunk size whatever
+ * the payload size. Valid rows are inserted in chunks of {@value #CHUNK_SIZE}, each in its own transaction with one
+ * bulk event write and one availability update; invalid rows are reported by line number and skipped.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UnitImportService {
+
+    static final int CHUNK_SIZE = 1_000;
+    static final int MAX_REPORTED_ERRORS = 1_000;
+
+    private static final String IMPORT_DETAILS = "Unit imported";
+    private static final List<String> CSV_HEADER = List.of("rooms", "type", "floor", "description", "baseCost");
+
+    private final UnitRepository unitRepository;
+    private final UnitEventService unitEventService;
+    private final AvailabilityService availabilityService;
+    private final UnitSearchCache unitSearchCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    public UnitImportResponse importUnits(InputStream input, ImportFormat format) throws IOException {
+        var report = new Report();
+        List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+        try (var reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || (format == ImportFormat.CSV && lineNumber == 1 && isCsvHeader(line))) {
+                    continue;
+                }
+                try {
+                    chunk.add(new Row(lineNumber, validate(parse(line, format))));
+                } catch (BadRequestException ex) {
+                    report.fail(lineNumber, ex.getMessage());
+                }
+                if (chunk.size() == CHUNK_SIZE) {
+                    insertChunk(chunk, report);
+                    chunk.clear();
+                }
+            }
+        }
+        insertChunk(chunk, report);
+        log.info("Unit import completed format={} imported={} failed={}", format, report.imported, report.failed);
+        return new UnitImportResponse(report.imported, report.failed, report.errors);
+    }
+
+    private void insertChunk(List<Row> chunk, Report report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.execute(status -> {
+                var saved = unitRepository.saveAll(chunk.stream().map(row -> buildUnit(row.request())).toList());
+                unitEventService.recordEvents(saved.stream().map(Unit::getId).toList(), UnitEventType.CREATED, IMPORT_DETAILS);
+                unitSearchCache.evictUnits(saved);
+                return saved.size();
+            });
+        } catch (DataAccessException ex) {
+            log.warn("Unit import chunk of {} rows failed: {}", chunk.size(), ex.getMessage());
+            chunk.forEach(row -> report.fail(row.line(), "Chunk insert failed"));
+            return;
+        }
+        report.imported += chunk.size();
+        increaseAvailability(chunk.size());
+    }
+
+    /**
+     * The chunk has committed, so a failed counter update must not be reported as a failed insert; a retry of those
+     * lines would create duplicate units. The counters stay low until the next rollover recounts the days.
+     */
+    private void increaseAvailability(int newUnits) {
+        try {
+            availabilityService.increase(newUnits);
+        } catch (RuntimeException ex) {
+            log.error("Availability not increased for {} imported units, counters are low until the next rollover: {}",
+                    newUnits, ex.getMessage());
+        }
+    }
+
+    private UnitRequest parse(String line, ImportFormat format) {
+        return format == ImportFormat.NDJSON ? parseJson(line) : parseCsv(line);
+    }
+
+    private UnitRequest parseJson(String line) {
+        try {
+            return objectMapper.readValue(line, UnitRequest.class);
+        } catch (JsonProcessingException ex) {
+            throw new BadRequestException("Malformed JSON: " + ex.getOriginalMessage());
+        }
+    }
+
+    private UnitRequest parseCsv(String line) {
+        var fields = splitCsv(line);
+        if (fields.size() != CSV_HEADER.size()) {
+            throw new BadRequestException("Expected " + CSV_HEADER.size() + " columns " + CSV_HEADER + " but got " + fields.size());
+        }
+        try {
+            return new UnitRequest(
+                    Integer.parseInt(fields.get(0).trim()),
+                    UnitType.valueOf(fields.get(1).trim()),
+                    Integer.parseInt(fields.get(2).trim()),
+                    fields.get(3),
+                    new BigDecimal(fields.get(4).trim()));
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Malformed CSV value: " + ex.getMessage());
+        }
+    }
+
+    private UnitRequest validate(UnitRequest request) {
+        var violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new BadRequestException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+        return request;
+    }
+
+    private boolean isCsvHeader(String line) {
+        return splitCsv(line).stream().map(String::trim).toList().equals(CSV_HEADER);
+    }
+
+    /**
+     * Splits one CSV record; fields may be quoted, with {@code ""} standing for a quote inside a quoted field.
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        var field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new BadRequestException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private Unit buildUnit(UnitRequest request) {
+        return Unit.builder()
+                .rooms(request.rooms())
+                .type(request.type())
+                .floor(request.floor())
+                .description(request.description())
+                .baseCost(request.baseCost())
+                .build();
+    }
+
+    private record Row(long line, UnitRequest request) {
+    }
+
+    private static final class Report {
+        private final List<UnitImportError> errors = new ArrayList<>();
+        private int imported;
+        private int failed;
+
+        private void fail(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new UnitImportError(line, message));
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package am.asukiasyan.booking.service;
+
+import am.asukiasyan.booking.dto.UnitResponse;
+import am.asukiasyan.booking.exception.BadRequestException;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Set;
+
+/**
+ * Position after the last unit of a keyset page: the sort key value plus the id tie-breaker. Clients get it as an
+ * opaque URL-safe token and must send it back with the same sort.
+ */
+record UnitSearchCursor(String sortBy, Sort.Direction direction, Comparable<?> value, Long id) {
+
+    static final Set<String> SORT_KEYS = Set.of("id", "rooms", "floor", "baseCost", "createdAt");
+
+    private static final String SEPARATOR = "|";
+    private static final String INVALID_CURSOR = "cursor is invalid or does not match sortBy and direction";
+
+    static UnitSearchCursor after(UnitResponse unit, String sortBy, Sort.Direction direction) {
+        Comparable<?> value = switch (sortBy) {
+            case "rooms" -> unit.rooms();
+            case "floor" -> unit.floor();
+            case "baseCost" -> unit.baseCost();
+            case "createdAt" -> unit.createdAt();
+            default -> unit.id();
+        };
+        return new UnitSearchCursor(sortBy, direction, value, unit.id());
+    }
+
+    static UnitSearchCursor decode(String token, String sortBy, Sort.Direction direction) {
+        try {
+            var parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+                    .split("\\" + SEPARATOR, 4);
+            if (parts.length != 4 || !parts[0].equals(sortBy) || !parts[1].equals(direction.name())) {
+                throw new BadRequestException(INVALID_CURSOR);
+            }
+            return new UnitSearchCursor(sortBy, direction, parse(sortBy, parts[3]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | DateTimeException ex) {
+            throw new BadRequestException(INVALID_CURSOR);
+        }
+    }
+
+    String encode() {
+        var raw = String.join(SEPARATOR, sortBy, direction.name(), id.toString(), format(value));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Comparable<?> parse(String sortBy, String raw) {
+        return switch (sortBy) {
+            case "rooms", "floor" -> Integer.parseInt(raw);
+            case "baseCost" -> new BigDecimal(raw);
+            case "createdAt" -> Instant.parse(raw);
+            default -> Long.parseLong(raw);
+        };
+    }
+
+    private static String format(Comparable<?> value) {
+        return value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+    }
+}
@@ -1,14 +1,21 @@
 package am.asukiasyan.booking.service;
 
+import am.asukiasyan.booking.cache.UnitCountCache;
+import am.asukiasyan.booking.cache.UnitSearchCache;
+import am.asukiasyan.booking.cache.UnitSearchKey;
 import am.asukiasyan.booking.domain.Unit;
 import am.asukiasyan.booking.dto.PageResponse;
 import am.asukiasyan.booking.dto.UnitRequest;
 import am.asukiasyan.booking.dto.UnitResponse;
 import am.asukiasyan.booking.dto.UnitSearchRequest;
+import am.asukiasyan.booking.enums.PaginationMode;
 import am.asukiasyan.booking.enums.UnitEventType;
+import am.asukiasyan.booking.exception.BadRequestException;
 import am.asukiasyan.booking.repository.UnitRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
@@ -17,6 +24,9 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -30,26 +40,65 @@ public class UnitService {
     private final UnitRepository unitRepository;
     private final UnitEventService unitEventService;
     private final AvailabilityService availabilityService;
+    private final UnitSearchCache unitSearchCache;
+    private final UnitCountCache unitCountCache;
+
+    @Value("${booking.search.count.cap:1000}")
+    private int countCap = 1000;
 
     @Transactional
     public UnitResponse create(UnitRequest request) {
-        log.info("Creating unit rooms={} type={} floor={}", request.rooms(), request.type(), request.floor());
+        log.debug("Creating unit rooms={} type={} floor={}", request.rooms(), request.type(), request.floor());
         var saved = unitRepository.save(buildUnit(request));
         unitEventService.recordEvent(saved, UnitEventType.CREATED, "Unit created");
         availabilityService.increase();
+        unitSearchCache.evictUnit(saved);
         log.info("Unit created id={}", saved.getId());
         return toResponse(saved);
     }
 
     @Transactional(readOnly = true)
+    @Timed("booking.unit.search")
     public PageResponse<UnitResponse> search(UnitSearchRequest request) {
 
-        log.info("Searching by {}", request);
+        log.debug("Searching by {}", request);
         var minBase = adjustToBase(request.minCost());
         var maxBase = adjustToBase(request.maxCost());
         var applyAvailability = request.startDate() != null && request.endDate() != null;
         var startDate = applyAvailability ? request.startDate() : LocalDate.now();
         var endDate = applyAvailability ? request.endDate() : LocalDate.now();
+        var key = new UnitSearchKey(request.type(), request.rooms(), request.floor(), minBase, maxBase,
+                request.startDate(), request.endDate(), request.page(), request.size(), request.sortBy(),
+                request.direction(), request.pagination(), request.cursor(), request.count());
+        return unitSearchCache.get(key, () -> request.pagination() == PaginationMode.KEYSET
+                ? searchKeyset(request, key, minBase, maxBase, startDate, endDate, applyAvailability)
+                : searchOffset(request, key, minBase, maxBase, startDate, endDate, applyAvailability));
+    }
+
+    /**
+     * Every unit matching the request's filters in id order, read through a database cursor; paging and sorting
+     * parameters are ignored. The caller consumes and closes the stream inside its own read-only transaction.
+     */
+    public Stream<UnitResponse> stream(UnitSearchRequest request) {
+        return unitRepository.streamMatching(
+                request.type(),
+                request.rooms(),
+                request.floor(),
+                adjustToBase(request.minCost()),
+                adjustToBase(request.maxCost()),
+                request.startDate(),
+                request.endDate(),
+                request.startDate() != null && request.endDate() != null,
+                MARKUP_MULTIPLIER);
+    }
+
+    private PageResponse<UnitResponse> searchOffset(UnitSearchRequest request,
+                                                    UnitSearchKey key,
+                                                    BigDecimal minBase,
+                                                    BigDecimal maxBase,
+                                                    LocalDate startDate,
+                                                    LocalDate endDate,
+                                                    boolean applyAvailability) {
         var pageable = PageRequest.of(request.page(), request.size(), Sort.by(request.direction(), request.sortBy()));
         var units = unitRepository.search(
                 request.type(),
@@ -60,18 +109,88 @@ public class UnitService {
                 startDate,
                 endDate,
                 applyAvailability,
-                pageable);
+                pageable,
+                MARKUP_MULTIPLIER);
+        var total = count(request, key, minBase, maxBase, startDate, endDate, applyAvailability);
+
+        log.debug("Search completed total={} page={} size={}", total.value(), request.page(), request.size());
+        return new PageResponse<>(List.copyOf(units), request.page(), request.size(), total.value(), null,
+                total.exact());
+    }
+
+    /**
+     * Seeks past the cursor instead of skipping rows, so every page costs the same. One extra row is fetched to tell
+     * whether a next page exists; the total is only counted when asked for.
+     */
+    private PageResponse<UnitResponse> searchKeyset(UnitSearchRequest request,
+                                                    UnitSearchKey key,
+                                                    BigDecimal minBase,
+                                                    BigDecimal maxBase,
+                                                    LocalDate startDate,
+                                                    LocalDate endDate,
+                                                    boolean applyAvailability) {
+        if (!UnitSearchCursor.SORT_KEYS.contains(request.sortBy())) {
+            throw new BadRequestException("keyset pagination supports sortBy " + UnitSearchCursor.SORT_KEYS);
+        }
+        var cursor = request.cursor() == null
+                ? null
+                : UnitSearchCursor.decode(request.cursor(), request.sortBy(), request.direction());
+        var units = unitRepository.searchAfter(
+                request.type(),
+                request.rooms(),
+                request.floor(),
+                minBase,
+                maxBase,
+                startDate,
+                endDate,
+                applyAvailability,
+                new Sort.Order(request.direction(), request.sortBy()),
+                cursor == null ? null : cursor.value(),
+                cursor == null ? null : cursor.id(),
+                request.size() + 1,
+                MARKUP_MULTIPLIER);
 
-        var responses = units.stream().map(this::toResponse).toList();
-        log.info("Search completed total={} page={} size={}", units.getTotalElements(), units.getNumber(), units.getSize());
-        return new PageResponse<>(responses, units.getNumber(), units.getSize(), units.getTotalElements());
+        var hasNext = units.size() > request.size();
+        var page = List.copyOf(hasNext ? units.subList(0, request.size()) : units);
+        var nextCursor = hasNext
+                ? UnitSearchCursor.after(page.getLast(), request.sortBy(), request.direction()).encode()
+                : null;
+        var total = count(request, key, minBase, maxBase, startDate, endDate, applyAvailability);
+
+        log.debug("Keyset search completed returned={} hasNext={} total={}", page.size(), hasNext, total.value());
+        return new PageResponse<>(page, request.page(), request.size(), total.value(), nextCursor, total.exact());
+    }
+
+    /**
+     * Counts the total the way the request asks for. Capped counts stop one past the cap and report the cap as a
+     * lower bound; estimates reuse a recent exact count of the same filters.
+     */
+    private Total count(UnitSearchRequest request,
+                        UnitSearchKey key,
+                        BigDecimal minBase,
+                        BigDecimal maxBase,
+                        LocalDate startDate,
+                        LocalDate endDate,
+                        boolean applyAvailability) {
+        LongSupplier exact = () -> unitRepository.countMatching(request.type(), request.rooms(), request.floor(),
+                minBase, maxBase, startDate, endDate, applyAvailability);
+        return switch (request.count()) {
+            case NONE -> Total.NONE;
+            case EXACT -> new Total(exact.getAsLong(), true);
+            case ESTIMATED -> new Total(unitCountCache.get(key, exact), false);
+            case CAPPED -> {
+                var counted = unitRepository.countMatchingUpTo(request.type(), request.rooms(), request.floor(),
+                        minBase, maxBase, startDate, endDate, applyAvailability, countCap + 1);
+                yield counted > countCap ? new Total((long) countCap, false) : new Total(counted, true);
+            }
+        };
     }
 
     public BigDecimal addMarkup(BigDecimal baseCost) {
         return baseCost.multiply(MARKUP_MULTIPLIER).setScale(COST_SCALE, COST_ROUNDING);
     }
 
-    private BigDecimal adjustToBase(BigDecimal finalCost) {
+    BigDecimal adjustToBase(BigDecimal finalCost) {
         if (finalCost == null) {
             return null;
         }
@@ -88,6 +207,11 @@ public class UnitService {
                 .build();
     }
 
+    private record Total(Long value, Boolean exact) {
+
+        static final Total NONE = new Total(null, null);
+    }
+
     private UnitResponse toResponse(Unit unit) {
         return new UnitResponse(
                 unit.getId(),
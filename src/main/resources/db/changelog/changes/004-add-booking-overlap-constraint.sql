@@ -0,0 +1,7 @@
+-- Active bookings of the same unit must not share a day
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+ALTER TABLE bookings
+    ADD CONSTRAINT ex_bookings_unit_active_dates
+    EXCLUDE USING gist (unit_id WITH =, daterange(start_date, end_date, '[]') WITH &&)
+    WHERE (status <> 'CANCELLED');
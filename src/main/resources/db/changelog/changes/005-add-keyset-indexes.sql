@@ -0,0 +1,3 @@
+-- Composite indexes so keyset pages on cost and creation time read in (sort key, id) order
+CREATE INDEX IF NOT EXISTS idx_units_base_cost_id ON units(base_cost, id);
+CREATE INDEX IF NOT EXISTS idx_units_created_at_id ON units(created_at, id);
@@ -0,0 +1,6 @@
+-- Hibernate reserves ids in blocks of 50 with the pooled-lo optimizer; inserts that use the column default take one block each
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
+ALTER SEQUENCE units_id_seq INCREMENT BY 50;
+ALTER SEQUENCE bookings_id_seq INCREMENT BY 50;
+ALTER SEQUENCE payments_id_seq INCREMENT BY 50;
+ALTER SEQUENCE unit_events_id_seq INCREMENT BY 50;
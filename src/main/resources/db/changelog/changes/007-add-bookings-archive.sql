@@ -0,0 +1,19 @@
+-- Bookings that ended before the current month move here, so overlap checks on bookings only see the active window.
+-- Monthly partitions by end_date are created by BookingArchiver as rows arrive and detached once past retention.
+CREATE TABLE bookings_archive (
+    id BIGINT NOT NULL,
+    unit_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    start_date DATE NOT NULL,
+    end_date DATE NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    total_cost NUMERIC(10,2) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    payment_status VARCHAR(50),
+    paid_at TIMESTAMP,
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, end_date)
+) PARTITION BY RANGE (end_date);
+
+CREATE INDEX idx_bookings_archive_unit_dates ON bookings_archive(unit_id, start_date, end_date);
@@ -0,0 +1,23 @@
+-- Overlap checks (existsActiveBooking, countAvailableToday, the search NOT EXISTS) only look at active bookings of a
+-- unit; end_date leads the range part because it is the bound that excludes history
+CREATE INDEX IF NOT EXISTS idx_bookings_active_unit_dates ON bookings(unit_id, end_date, start_date)
+    WHERE status <> 'CANCELLED';
+
+-- Active spans across all units (occupancy index load and rollover)
+CREATE INDEX IF NOT EXISTS idx_bookings_active_dates ON bookings(end_date, start_date) INCLUDE (unit_id)
+    WHERE status <> 'CANCELLED';
+
+-- Expiry claims and the expiry wheel load only touch bookings still waiting for payment
+CREATE INDEX IF NOT EXISTS idx_bookings_pending_expires_at ON bookings(expires_at)
+    WHERE status = 'PENDING_PAYMENT' AND expires_at IS NOT NULL;
+
+-- Search filters on units; counts and the id lists of capped counts are answered from the index alone, while result
+-- pages still read the heap for description and created_at
+CREATE INDEX IF NOT EXISTS idx_units_search ON units(type, rooms, floor, base_cost) INCLUDE (id);
+
+-- Superseded by the indexes above; status and start_date alone are never selective enough to be used
+DROP INDEX IF EXISTS idx_bookings_unit_dates;
+DROP INDEX IF EXISTS idx_bookings_status_only;
+DROP INDEX IF EXISTS idx_bookings_start_date_only;
+DROP INDEX IF EXISTS idx_units_type;
+DROP INDEX IF EXISTS idx_units_type_only;
@@ -0,0 +1,11 @@
+-- Incremental exports resume from a timestamp watermark, read in (watermark, id) order.
+-- unit_events.created_at is the event time, which precedes the asynchronous write by at least a flush interval and,
+-- while writes are failing, by much longer; recorded_at is assigned by the database when the row is inserted.
+ALTER TABLE unit_events ADD COLUMN recorded_at TIMESTAMP;
+UPDATE unit_events SET recorded_at = created_at;
+ALTER TABLE unit_events ALTER COLUMN recorded_at SET DEFAULT clock_timestamp();
+ALTER TABLE unit_events ALTER COLUMN recorded_at SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_unit_events_recorded_at_id ON unit_events(recorded_at, id);
+CREATE INDEX IF NOT EXISTS idx_bookings_updated_at_id ON bookings(updated_at, id);
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_updated_at_id ON bookings_archive(updated_at, id);
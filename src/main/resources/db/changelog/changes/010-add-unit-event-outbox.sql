@@ -0,0 +1,10 @@
+-- Append-only outbox for the unit audit trail. Rows are inserted in the transaction that records the event and moved
+-- to unit_events in batches by UnitEventWriter. There is no foreign key and details is unbounded, so an event that
+-- unit_events would reject cannot fail the business transaction; the writer drops it when moving it instead.
+CREATE TABLE IF NOT EXISTS unit_event_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    unit_id BIGINT NOT NULL,
+    event_type VARCHAR(50) NOT NULL,
+    details TEXT,
+    created_at TIMESTAMP NOT NULL
+);
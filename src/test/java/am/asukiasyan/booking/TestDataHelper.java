@@ -25,6 +25,7 @@ public final class TestDataHelper {
     public static final String BOOKING_CANCEL_PATH = BOOKING_PATH + "/1/cancel";
     public static final String BOOKING_PAY_PATH = BOOKING_PATH + "/1/pay";
     public static final String UNIT_PATH = SERVLET_PATH + "/units";
+    public static final String EXPORT_PATH = SERVLET_PATH + "/export";
 
     private TestDataHelper() {
     }
@@ -0,0 +1,71 @@
+package am.asukiasyan.booking.availability;
+
+import am.asukiasyan.booking.repository.projection.BookingSpan;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OccupancyIndexTest {
+
+    private final LocalDate today = LocalDate.of(2026, 1, 10);
+    private OccupancyIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new OccupancyIndex(30);
+        index.reset(today, List.of(new BookingSpan(1L, 1L, today.plusDays(2), today.plusDays(4))));
+    }
+
+    @Test
+    void testCoversOnlyHorizon() {
+        assertThat(index.covers(today, today.plusDays(29))).isTrue();
+        assertThat(index.covers(today.minusDays(1), today)).isFalse();
+        assertThat(index.covers(today, today.plusDays(30))).isFalse();
+        assertThat(new OccupancyIndex(30).covers(today, today)).isFalse();
+    }
+
+    @Test
+    void testIsOccupiedDetectsOverlapInclusive() {
+        assertThat(index.isOccupied(1L, today, today.plusDays(1))).isFalse();
+        assertThat(index.isOccupied(1L, today, today.plusDays(2))).isTrue();
+        assertThat(index.isOccupied(1L, today.plusDays(4), today.plusDays(6))).isTrue();
+        assertThat(index.isOccupied(1L, today.plusDays(5), today.plusDays(6))).isFalse();
+        assertThat(index.isOccupied(2L, today, today.plusDays(6))).isFalse();
+    }
+
+    @Test
+    void testTryOccupyRejectsOverlapAndReleaseFreesDays() {
+        assertThat(index.tryOccupy(1L, today.plusDays(3), today.plusDays(5))).isFalse();
+        assertThat(index.tryOccupy(1L, today.plusDays(5), today.plusDays(6))).isTrue();
+
+        index.release(1L, today.plusDays(2), today.plusDays(4));
+
+        assertThat(index.isOccupied(1L, today, today.plusDays(4))).isFalse();
+        assertThat(index.isOccupied(1L, today.plusDays(6), today.plusDays(6))).isTrue();
+    }
+
+    @Test
+    void testOccupiedUnitsReturnsOverlappingUnits() {
+        index.occupy(2L, today.plusDays(10), today.plusDays(12));
+
+        assertThat(index.occupiedUnits(today, today.plusDays(3))).containsExactly(1L);
+        assertThat(index.occupiedUnits(today, today.plusDays(20))).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.occupiedUnits(today.plusDays(13), today.plusDays(20))).isEmpty();
+    }
+
+    @Test
+    void testAdvanceToShiftsDaysAndReportsNewWindow() {
+        var firstNewDay = index.advanceTo(today.plusDays(3));
+
+        assertThat(firstNewDay).isEqualTo(today.plusDays(30));
+        assertThat(index.horizonEnd()).isEqualTo(today.plusDays(32));
+        assertThat(index.covers(today.plusDays(2), today.plusDays(2))).isFalse();
+        assertThat(index.isOccupied(1L, today.plusDays(3), today.plusDays(3))).isTrue();
+        assertThat(index.isOccupied(1L, today.plusDays(5), today.plusDays(10))).isFalse();
+        assertThat(index.advanceTo(today.plusDays(3))).isNull();
+    }
+}
@@ -0,0 +1,143 @@
+package am.asukiasyan.booking.availability;
+
+import am.asukiasyan.booking.availability.OccupancySync.Change;
+import am.asukiasyan.booking.repository.BookingRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OccupancyServiceTest {
+
+    @Mock
+    private OccupancySync sync;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private final LocalDate today = LocalDate.now();
+    private final OccupancyIndex index = new OccupancyIndex(30);
+    private OccupancyService occupancyService;
+
+    @BeforeEach
+    void setUp() {
+        index.reset(today, List.of());
+        occupancyService = new OccupancyService(index, sync, bookingRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testReserveAcceptsIndexMissWithoutQueryingTheDatabase() {
+        var reserve = inTransaction(() -> assertThat(occupancyService.reserve(1L, today, today.plusDays(1))).isTrue());
+
+        assertThat(index.isOccupied(1L, today, today.plusDays(1))).isTrue();
+        verifyNoInteractions(bookingRepository);
+        complete(reserve, TransactionSynchronization.STATUS_COMMITTED);
+        verify(sync).publish(Change.OCCUPY, 1L, today, today.plusDays(1));
+    }
+
+    @Test
+    void testReserveRejectsIndexHitConfirmedByTheDatabase() {
+        index.occupy(1L, today, today.plusDays(1));
+        when(bookingRepository.existsActiveBooking(1L, today.plusDays(1), today.plusDays(2))).thenReturn(true);
+
+        assertThat(occupancyService.reserve(1L, today.plusDays(1), today.plusDays(2))).isFalse();
+        assertThat(index.isOccupied(1L, today.plusDays(2), today.plusDays(2))).isFalse();
+    }
+
+    @Test
+    void testReserveAcceptsStaleIndexHitTheDatabaseDoesNotConfirm() {
+        index.occupy(1L, today, today.plusDays(1));
+        when(bookingRepository.existsActiveBooking(1L, today, today.plusDays(1))).thenReturn(false);
+
+        var reserve = inTransaction(() -> assertThat(occupancyService.reserve(1L, today, today.plusDays(1))).isTrue());
+
+        complete(reserve, TransactionSynchronization.STATUS_COMMITTED);
+        verify(sync).publish(Change.OCCUPY, 1L, today, today.plusDays(1));
+    }
+
+    @Test
+    void testReserveOutsideTheHorizonQueriesTheDatabase() {
+        var start = today.plusDays(40);
+        when(bookingRepository.existsActiveBooking(1L, start, start.plusDays(1))).thenReturn(true);
+
+        assertThat(occupancyService.reserve(1L, start, start.plusDays(1))).isFalse();
+    }
+
+    @Test
+    void testRolledBackClaimKeepsDaysOfAnotherInFlightClaim() {
+        var first = inTransaction(() -> occupancyService.claim(1L, today.plusDays(2), today.plusDays(4)));
+        var second = inTransaction(() -> occupancyService.claim(1L, today.plusDays(3), today.plusDays(5)));
+
+        complete(second, TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(index.isOccupied(1L, today.plusDays(2), today.plusDays(4))).isTrue();
+        complete(first, TransactionSynchronization.STATUS_COMMITTED);
+        verify(sync).publish(Change.OCCUPY, 1L, today.plusDays(2), today.plusDays(4));
+    }
+
+    @Test
+    void testClaimThatFoundDaysTakenSetsThemOnCommit() {
+        var first = inTransaction(() -> occupancyService.claim(1L, today.plusDays(2), today.plusDays(4)));
+        var second = inTransaction(() -> occupancyService.claim(1L, today.plusDays(3), today.plusDays(5)));
+
+        complete(first, TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertThat(index.isOccupied(1L, today.plusDays(2), today.plusDays(5))).isFalse();
+
+        complete(second, TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(index.isOccupied(1L, today.plusDays(5), today.plusDays(5))).isTrue();
+        assertThat(index.isOccupied(1L, today.plusDays(2), today.plusDays(2))).isFalse();
+    }
+
+    @Test
+    void testReleaseAppliesOnlyAfterCommit() {
+        index.occupy(1L, today, today.plusDays(1));
+
+        var release = inTransaction(() -> occupancyService.release(1L, today, today.plusDays(1)));
+        assertThat(index.isOccupied(1L, today, today)).isTrue();
+        verifyNoInteractions(sync);
+
+        complete(release, TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(index.isOccupied(1L, today, today.plusDays(1))).isFalse();
+        verify(sync).publish(Change.RELEASE, 1L, today, today.plusDays(1));
+    }
+
+    /**
+     * Runs the action as if inside its own transaction and returns the synchronizations it registered.
+     */
+    private List<TransactionSynchronization> inTransaction(Runnable action) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            action.run();
+            return TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private void complete(List<TransactionSynchronization> synchronizations, int status) {
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
@@ -0,0 +1,118 @@
+package am.asukiasyan.booking.availability;
+
+import am.asukiasyan.booking.availability.OccupancySync.Change;
+import am.asukiasyan.booking.cache.UnitSearchCache;
+import am.asukiasyan.booking.cache.UnitSearchKey;
+import am.asukiasyan.booking.dto.PageResponse;
+import am.asukiasyan.booking.dto.UnitResponse;
+import am.asukiasyan.booking.enums.CountMode;
+import am.asukiasyan.booking.enums.PaginationMode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OccupancySyncTest {
+
+    private final LocalDate today = LocalDate.now();
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    private final OccupancyIndex localIndex = new OccupancyIndex(30);
+    private final OccupancyIndex peerIndex = new OccupancyIndex(30);
+    private final UnitSearchCache peerSearchCache =
+            new UnitSearchCache(1_000, Duration.ofMinutes(1), Duration.ofSeconds(6), () -> false);
+    private final OccupancySync local = new OccupancySync(localIndex, mock(UnitSearchCache.class), redisTemplate);
+    private final OccupancySync peer = new OccupancySync(peerIndex, peerSearchCache, redisTemplate);
+
+    @BeforeEach
+    void setUp() {
+        localIndex.reset(today, List.of());
+        peerIndex.reset(today, List.of());
+    }
+
+    @Test
+    void testPeersApplyPublishedChanges() {
+        peer.onMessage(message(published(Change.OCCUPY, 1L, today.plusDays(2), today.plusDays(3))), null);
+        assertThat(peerIndex.isOccupied(1L, today.plusDays(3), today.plusDays(3))).isTrue();
+
+        peer.onMessage(message(published(Change.RELEASE, 1L, today.plusDays(2), today.plusDays(3))), null);
+        assertThat(peerIndex.isOccupied(1L, today, today.plusDays(5))).isFalse();
+    }
+
+    @Test
+    void testPeersEvictCachedSearchesOverlappingTheChange() {
+        var thisWeek = searchKey(today, today.plusDays(3));
+        var nextMonth = searchKey(today.plusDays(30), today.plusDays(33));
+        List.of(thisWeek, nextMonth).forEach(key -> peerSearchCache.get(key, this::emptyPage));
+
+        peer.onMessage(message(published(Change.OCCUPY, 1L, today.plusDays(2), today.plusDays(3))), null);
+
+        assertThat(peerSearchCache.size()).isOne();
+        var reloaded = new AtomicBoolean();
+        peerSearchCache.get(nextMonth, () -> {
+            reloaded.set(true);
+            return emptyPage();
+        });
+        assertThat(reloaded).isFalse();
+    }
+
+    @Test
+    void testIgnoresOwnMessages() {
+        localIndex.occupy(1L, today, today.plusDays(1));
+
+        local.onMessage(message(published(Change.RELEASE, 1L, today, today.plusDays(1))), null);
+
+        assertThat(localIndex.isOccupied(1L, today, today)).isTrue();
+    }
+
+    @Test
+    void testIgnoresMalformedMessages() {
+        peer.onMessage(message("garbage"), null);
+        peer.onMessage(message("other,OCCUPY,x,2026-01-01,2026-01-02"), null);
+
+        assertThat(peerIndex.occupiedUnits(today, today.plusDays(29))).isEmpty();
+    }
+
+    @Test
+    void testPublishDoesNotThrowWhenRedisIsDown() {
+        when(redisTemplate.convertAndSend(anyString(), anyString())).thenThrow(new IllegalStateException("redis down"));
+
+        local.publish(Change.OCCUPY, 1L, today, today);
+    }
+
+    private String published(Change change, Long unitId, LocalDate start, LocalDate end) {
+        var captor = ArgumentCaptor.forClass(String.class);
+        local.publish(change, unitId, start, end);
+        verify(redisTemplate, atLeastOnce()).convertAndSend(eq(OccupancySync.CHANNEL), captor.capture());
+        return captor.getValue();
+    }
+
+    private UnitSearchKey searchKey(LocalDate startDate, LocalDate endDate) {
+        return new UnitSearchKey(null, null, null, null, null, startDate, endDate, 0, 10, "id", Sort.Direction.ASC,
+                PaginationMode.OFFSET, null, CountMode.CAPPED);
+    }
+
+    private PageResponse<UnitResponse> emptyPage() {
+        return new PageResponse<>(List.of(), 0, 10, 0L, null, true);
+    }
+
+    private DefaultMessage message(String body) {
+        return new DefaultMessage(OccupancySync.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,54 @@
+package am.asukiasyan.booking.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.connection.DefaultMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AvailabilityInvalidationListenerTest {
+
+    private final LocalDate today = LocalDate.now();
+    private final ConcurrentMapCache cache = new ConcurrentMapCache("availability");
+    private final AvailabilityInvalidationListener listener = new AvailabilityInvalidationListener(cache);
+
+    @Test
+    void testEvictsPublishedDates() {
+        cache.put(today, 1);
+        cache.put(today.plusDays(1), 2);
+        cache.put(today.plusDays(2), 3);
+
+        listener.onMessage(message(today + "," + today.plusDays(1)), null);
+
+        assertThat(cache.get(today)).isNull();
+        assertThat(cache.get(today.plusDays(1))).isNull();
+        assertThat(cache.get(today.plusDays(2))).isNotNull();
+    }
+
+    @Test
+    void testClearsOnAllDays() {
+        cache.put(today, 1);
+        cache.put(today.plusDays(1), 2);
+
+        listener.onMessage(message(RedisAvailabilityCache.ALL_DAYS), null);
+
+        assertThat(cache.getNativeCache()).isEmpty();
+    }
+
+    @Test
+    void testClearsOnUnexpectedMessage() {
+        cache.put(today, 1);
+
+        listener.onMessage(message("garbage"), null);
+
+        assertThat(cache.getNativeCache()).isEmpty();
+    }
+
+    private DefaultMessage message(String body) {
+        return new DefaultMessage(RedisAvailabilityCache.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
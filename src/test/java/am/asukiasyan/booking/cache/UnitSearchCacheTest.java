@@ -0,0 +1,144 @@
+package am.asukiasyan.booking.cache;
+
+import am.asukiasyan.booking.domain.Unit;
+import am.asukiasyan.booking.dto.PageResponse;
+import am.asukiasyan.booking.dto.UnitResponse;
+import am.asukiasyan.booking.enums.CountMode;
+import am.asukiasyan.booking.enums.PaginationMode;
+import am.asukiasyan.booking.enums.UnitType;
+import am.asukiasyan.booking.repository.projection.BookingSpan;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UnitSearchCacheTest {
+
+    private final LocalDate today = LocalDate.now();
+    private final AtomicBoolean onReplica = new AtomicBoolean();
+    private final UnitSearchCache cache =
+            new UnitSearchCache(1_000, Duration.ofMinutes(1), Duration.ofMinutes(1), onReplica::get);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void testEquivalentCostsShareEntry() {
+        load(key(UnitType.FLAT, new BigDecimal("100.00"), null, null));
+        load(key(UnitType.FLAT, new BigDecimal("100"), null, null));
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void testBookingEvictsOnlyMatchingTypeAndOverlappingWindow() {
+        var flatThisWeek = key(UnitType.FLAT, null, today, today.plusDays(3));
+        var flatNextMonth = key(UnitType.FLAT, null, today.plusDays(30), today.plusDays(33));
+        var homeThisWeek = key(UnitType.HOME, null, today, today.plusDays(3));
+        var flatAnyDate = key(UnitType.FLAT, null, null, null);
+        List.of(flatThisWeek, flatNextMonth, homeThisWeek, flatAnyDate).forEach(this::load);
+
+        cache.evictBooking(unit(UnitType.FLAT), today.plusDays(1), today.plusDays(2));
+        List.of(flatThisWeek, flatNextMonth, homeThisWeek, flatAnyDate).forEach(this::load);
+
+        assertThat(loads).hasValue(5);
+    }
+
+    @Test
+    void testNewUnitEvictsMatchingFiltersWhateverTheDates() {
+        var cheapFlat = key(UnitType.FLAT, null, null, null);
+        var flatThisWeek = key(UnitType.FLAT, null, today, today.plusDays(3));
+        var expensiveFlat = key(UnitType.FLAT, new BigDecimal("500"), null, null);
+        List.of(cheapFlat, flatThisWeek, expensiveFlat).forEach(this::load);
+
+        cache.evictUnit(unit(UnitType.FLAT));
+        List.of(cheapFlat, flatThisWeek, expensiveFlat).forEach(this::load);
+
+        assertThat(loads).hasValue(5);
+    }
+
+    @Test
+    void testReleasedSpansEvictOverlappingWindowsOfAnyType() {
+        var homeThisWeek = key(UnitType.HOME, null, today, today.plusDays(3));
+        var flatNextMonth = key(UnitType.FLAT, null, today.plusDays(30), today.plusDays(33));
+        List.of(homeThisWeek, flatNextMonth).forEach(this::load);
+
+        cache.evictBookings(List.of(new BookingSpan(1L, 1L, today.plusDays(3), today.plusDays(4))));
+        List.of(homeThisWeek, flatNextMonth).forEach(this::load);
+
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void testPageLoadedDuringEvictionIsNotStored() {
+        var key = key(UnitType.FLAT, null, today, today.plusDays(3));
+
+        cache.get(key, () -> {
+            cache.evictBooking(unit(UnitType.FLAT), today, today);
+            return page();
+        });
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void testReplicaPageReadSoonAfterMatchingEvictionIsNotStored() {
+        cache.evictBooking(unit(UnitType.FLAT), today, today.plusDays(1));
+        onReplica.set(true);
+
+        load(key(UnitType.FLAT, null, today, today.plusDays(3)));
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void testReplicaPageUnaffectedByRecentEvictionsIsStored() {
+        cache.evictBooking(unit(UnitType.HOME), today, today.plusDays(1));
+        onReplica.set(true);
+
+        load(key(UnitType.FLAT, null, today, today.plusDays(3)));
+
+        assertThat(cache.size()).isOne();
+    }
+
+    @Test
+    void testPrimaryPageReadAfterEvictionIsStored() {
+        cache.evictBooking(unit(UnitType.FLAT), today, today.plusDays(1));
+
+        load(key(UnitType.FLAT, null, today, today.plusDays(3)));
+
+        assertThat(cache.size()).isOne();
+    }
+
+    private void load(UnitSearchKey key) {
+        cache.get(key, () -> {
+            loads.incrementAndGet();
+            return page();
+        });
+    }
+
+    private UnitSearchKey key(UnitType type, BigDecimal minBaseCost, LocalDate startDate, LocalDate endDate) {
+        return new UnitSearchKey(type, null, null, minBaseCost, null, startDate, endDate, 0, 10, "id",
+                Sort.Direction.ASC, PaginationMode.OFFSET, null, CountMode.CAPPED);
+    }
+
+    private Unit unit(UnitType type) {
+        return Unit.builder()
+                .id(1L)
+                .type(type)
+                .rooms(2)
+                .floor(1)
+                .description("desc")
+                .baseCost(new BigDecimal("100.00"))
+                .build();
+    }
+
+    private PageResponse<UnitResponse> page() {
+        return new PageResponse<>(List.of(), 0, 10, 0L, null, true);
+    }
+}
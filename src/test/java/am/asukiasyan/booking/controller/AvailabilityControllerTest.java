@@ -1,5 +1,6 @@
 package am.asukiasyan.booking.controller;
 
+import am.asukiasyan.booking.exception.BadRequestException;
 import am.asukiasyan.booking.service.AvailabilityService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -7,8 +8,11 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
+
 import static am.asukiasyan.booking.TestDataHelper.AVAILABILITY_PATH;
 import static am.asukiasyan.booking.TestDataHelper.SERVLET_PATH;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -25,16 +29,36 @@ class AvailabilityControllerTest {
 
     @Test
     void returnsAvailabilitySuccess() throws Exception {
-        when(availabilityService.getAvailableUnits()).thenReturn(7);
+        when(availabilityService.getAvailableUnits(LocalDate.now())).thenReturn(7);
 
         mockMvc.perform(get(AVAILABILITY_PATH).servletPath(SERVLET_PATH))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.availableUnits").value(7));
     }
 
+    @Test
+    void returnsAvailabilityForRequestedDateSuccess() throws Exception {
+        var date = LocalDate.now().plusDays(5);
+        when(availabilityService.getAvailableUnits(date)).thenReturn(3);
+
+        mockMvc.perform(get(AVAILABILITY_PATH).servletPath(SERVLET_PATH).param("date", date.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.date").value(date.toString()))
+                .andExpect(jsonPath("$.availableUnits").value(3));
+    }
+
+    @Test
+    void returnsBadRequestForDateOutsideHorizon() throws Exception {
+        var date = LocalDate.now().minusDays(1);
+        when(availabilityService.getAvailableUnits(date)).thenThrow(new BadRequestException("date must be within the next 90 days"));
+
+        mockMvc.perform(get(AVAILABILITY_PATH).servletPath(SERVLET_PATH).param("date", date.toString()))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void returnsServerErrorWhenServiceFails() throws Exception {
-        when(availabilityService.getAvailableUnits()).thenThrow(new RuntimeException("cache down"));
+        when(availabilityService.getAvailableUnits(any(LocalDate.class))).thenThrow(new RuntimeException("cache down"));
 
         mockMvc.perform(get(AVAILABILITY_PATH).servletPath(SERVLET_PATH))
                 .andExpect(status().isInternalServerError())
@@ -1,5 +1,8 @@
 package am.asukiasyan.booking.controller;
 
+import am.asukiasyan.booking.dto.BatchBookingError;
+import am.asukiasyan.booking.dto.BatchBookingRequest;
+import am.asukiasyan.booking.dto.BatchBookingResponse;
 import am.asukiasyan.booking.dto.BookingRequest;
 import am.asukiasyan.booking.dto.BookingResponse;
 import am.asukiasyan.booking.enums.BookingStatus;
@@ -18,6 +21,7 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 
 import static am.asukiasyan.booking.TestDataHelper.*;
 import static am.asukiasyan.booking.enums.BookingStatus.CANCELLED;
@@ -65,6 +69,36 @@ class BookingControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void createBookingBatchSuccess() throws Exception {
+        when(bookingService.createBookings(any(BatchBookingRequest.class))).thenReturn(new BatchBookingResponse(
+                List.of(sampleResponse()), List.of(new BatchBookingError(1, 4L, "Unit not found"))));
+
+        mockMvc.perform(post(BOOKING_PATH + "/batch").servletPath(SERVLET_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"mode":"BEST_EFFORT","bookings":[
+                                  {"unitId":2,"userId":3,"startDate":"2025-01-01","endDate":"2025-01-02"},
+                                  {"unitId":4,"userId":3,"startDate":"2025-01-01","endDate":"2025-01-02"}
+                                ]}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.booked[0].id").value(1))
+                .andExpect(jsonPath("$.rejected[0].index").value(1));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{\"bookings\":[]}",
+            "{\"bookings\":[{\"unitId\":2,\"userId\":3,\"startDate\":\"2025-01-02\",\"endDate\":\"2025-01-01\"}]}"
+    })
+    void createBookingBatchFailValidation(String payload) throws Exception {
+        mockMvc.perform(post(BOOKING_PATH + "/batch").servletPath(SERVLET_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(payload))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void cancelBookingSuccess() throws Exception {
         var response = sampleResponseWith(CANCELLED, PaymentStatus.CANCELLED);
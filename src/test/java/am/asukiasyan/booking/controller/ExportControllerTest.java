@@ -0,0 +1,95 @@
+package am.asukiasyan.booking.controller;
+
+import am.asukiasyan.booking.dto.UnitSearchRequest;
+import am.asukiasyan.booking.enums.ExportFormat;
+import am.asukiasyan.booking.enums.UnitType;
+import am.asukiasyan.booking.service.ExportService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatcher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static am.asukiasyan.booking.TestDataHelper.EXPORT_PATH;
+import static am.asukiasyan.booking.TestDataHelper.SERVLET_PATH;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ExportController.class)
+class ExportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ExportService exportService;
+
+    @Test
+    void streamsUnitsAsCsvWithSearchFilters() throws Exception {
+        when(exportService.exportUnits(argThat(filtersFlatsWithTwoRooms()), eq(ExportFormat.CSV), any()))
+                .thenAnswer(invocation -> write(invocation.getArgument(2), "id,rooms\n7,2\n"));
+
+        var result = mockMvc.perform(get(EXPORT_PATH + "/units").servletPath(SERVLET_PATH)
+                        .param("type", "FLAT")
+                        .param("rooms", "2")
+                        .param("format", "CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"units.csv\""))
+                .andExpect(content().string("id,rooms\n7,2\n"));
+    }
+
+    @Test
+    void streamsBookingsSinceWatermarkAsNdjsonByDefault() throws Exception {
+        when(exportService.exportBookings(eq(Instant.parse("2026-03-01T10:00:00Z")), eq(ExportFormat.NDJSON), any()))
+                .thenAnswer(invocation -> write(invocation.getArgument(2), "{\"id\":43}\n"));
+
+        var result = mockMvc.perform(get(EXPORT_PATH + "/bookings").servletPath(SERVLET_PATH)
+                        .param("since", "2026-03-01T10:00:00Z"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson;charset=UTF-8"))
+                .andExpect(content().string("{\"id\":43}\n"));
+    }
+
+    @Test
+    void rejectsInvalidFiltersBeforeStreaming() throws Exception {
+        mockMvc.perform(get(EXPORT_PATH + "/units").servletPath(SERVLET_PATH)
+                        .param("minCost", "200")
+                        .param("maxCost", "100"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(exportService);
+    }
+
+    private static ArgumentMatcher<UnitSearchRequest> filtersFlatsWithTwoRooms() {
+        return request -> request.type() == UnitType.FLAT && Integer.valueOf(2).equals(request.rooms());
+    }
+
+    private static long write(OutputStream output, String body) throws Exception {
+        output.write(body.getBytes(StandardCharsets.UTF_8));
+        return body.lines().count();
+    }
+}
@@ -1,10 +1,14 @@
 package am.asukiasyan.booking.controller;
 
 import am.asukiasyan.booking.dto.PageResponse;
+import am.asukiasyan.booking.dto.UnitImportError;
+import am.asukiasyan.booking.dto.UnitImportResponse;
 import am.asukiasyan.booking.dto.UnitRequest;
 import am.asukiasyan.booking.dto.UnitResponse;
 import am.asukiasyan.booking.dto.UnitSearchRequest;
+import am.asukiasyan.booking.enums.ImportFormat;
 import am.asukiasyan.booking.enums.UnitType;
+import am.asukiasyan.booking.service.UnitImportService;
 import am.asukiasyan.booking.service.UnitService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -22,6 +26,7 @@ import java.util.List;
 import static am.asukiasyan.booking.TestDataHelper.UNIT_PATH;
 import static am.asukiasyan.booking.TestDataHelper.SERVLET_PATH;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -37,6 +42,9 @@ class UnitControllerTest {
     @MockBean
     private UnitService unitService;
 
+    @MockBean
+    private UnitImportService unitImportService;
+
     @Test
     void createsUnitSuccess() throws Exception {
         var response = new UnitResponse(1L, 2, UnitType.HOME, 1, "desc",
@@ -57,13 +65,30 @@ class UnitControllerTest {
         var response = new UnitResponse(2L, 1, UnitType.FLAT, 2, "flat",
                 BigDecimal.valueOf(80), BigDecimal.valueOf(92), Instant.now());
         when(unitService.search(any(UnitSearchRequest.class)))
-                .thenReturn(new PageResponse<>(List.of(response), 0, 10, 1));
+                .thenReturn(new PageResponse<>(List.of(response), 0, 10, 1L, null, true));
 
         mockMvc.perform(get(UNIT_PATH).servletPath(SERVLET_PATH))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.content[0].id").value(2));
     }
 
+    @Test
+    void importsUnitsFromCsv() throws Exception {
+        when(unitImportService.importUnits(any(), eq(ImportFormat.CSV)))
+                .thenReturn(new UnitImportResponse(1, 1, List.of(new UnitImportError(3, "rooms must be greater than 0"))));
+
+        mockMvc.perform(post(UNIT_PATH + "/import").servletPath(SERVLET_PATH)
+                        .contentType("text/csv")
+                        .content("""
+                                rooms,type,floor,description,baseCost
+                                2,HOME,1,desc,50
+                                0,HOME,1,desc,50
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(3));
+    }
+
     @ParameterizedTest
     @ValueSource(strings = {
             "{\"rooms\":0,\"type\":\"HOME\",\"floor\":-1,\"description\":\"\",\"baseCost\":-5}",
@@ -0,0 +1,95 @@
+package am.asukiasyan.booking.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.transaction.support.TransactionSynchronization.STATUS_COMMITTED;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private ReadReplicas replicas;
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() {
+        when(replicas.dataSources()).thenReturn(Map.of("replica-0", replica));
+        routingDataSource = new ReplicaRoutingDataSource(primary, replicas);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(STATUS_COMMITTED));
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testReadWriteTransactionGoesToPrimary() {
+        assertThat(routingDataSource.determineCurrentLookupKey()).isEqualTo(ReplicaRoutingDataSource.PRIMARY);
+        verifyNoInteractions(replica);
+    }
+
+    @Test
+    void testReadOnlyTransactionGoesToPickedReplica() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replicas.pick()).thenReturn("replica-0");
+
+        assertThat(routingDataSource.determineTargetDataSource()).isSameAs(replica);
+    }
+
+    @Test
+    void testReadOnlyTransactionFallsBackToPrimaryWhenReplicasLag() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replicas.pick()).thenReturn(null);
+
+        assertThat(routingDataSource.determineTargetDataSource()).isSameAs(primary);
+    }
+
+    @Test
+    void testTransactionRememberedAsOnReplicaUntilItCompletes() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replicas.pick()).thenReturn("replica-0");
+
+        routingDataSource.determineTargetDataSource();
+        assertThat(ReplicaRoutingDataSource.isCurrentTransactionOnReplica()).isTrue();
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(STATUS_COMMITTED));
+        assertThat(ReplicaRoutingDataSource.isCurrentTransactionOnReplica()).isFalse();
+    }
+
+    @Test
+    void testTransactionFallingBackToPrimaryIsNotOnReplica() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replicas.pick()).thenReturn(null);
+
+        routingDataSource.determineTargetDataSource();
+
+        assertThat(ReplicaRoutingDataSource.isCurrentTransactionOnReplica()).isFalse();
+    }
+}
@@ -0,0 +1,159 @@
+package am.asukiasyan.booking.event;
+
+import am.asukiasyan.booking.enums.UnitEventType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.transaction.support.TransactionSynchronization.STATUS_ROLLED_BACK;
+
+@ExtendWith(MockitoExtension.class)
+class UnitEventWriterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<List<Long>> written = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testAppendAddsEventsToOutboxInOneBatchBeforeCommit() {
+        recordWrites();
+        var writer = new UnitEventWriter(jdbcTemplate, 2);
+        TransactionSynchronizationManager.initSynchronization();
+
+        writer.append(events(1, 2, 3));
+        verifyNoInteractions(jdbcTemplate);
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.beforeCommit(false));
+        assertThat(written).containsExactly(List.of(1L, 2L, 3L));
+    }
+
+    @Test
+    void testRolledBackTransactionLeavesNoEvents() {
+        var writer = new UnitEventWriter(jdbcTemplate, 2);
+        TransactionSynchronizationManager.initSynchronization();
+
+        writer.append(events(1, 2));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(STATUS_ROLLED_BACK));
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void testAppendOutsideTransactionWritesRightAway() {
+        recordWrites();
+        var writer = new UnitEventWriter(jdbcTemplate, 2);
+
+        writer.append(events(1));
+
+        assertThat(written).containsExactly(List.of(1L));
+    }
+
+    @Test
+    void testFlushMovesBatchesUntilOutboxIsDrained() {
+        when(jdbcTemplate.update(contains("skip locked"), eq(2))).thenReturn(2, 2, 1);
+        var writer = new UnitEventWriter(jdbcTemplate, 2);
+
+        assertThat(writer.flush()).isEqualTo(5);
+        verify(jdbcTemplate, times(3)).update(contains("skip locked"), eq(2));
+    }
+
+    @Test
+    void testFailedFlushLeavesEventsInOutbox() {
+        when(jdbcTemplate.update(contains("skip locked"), eq(2)))
+                .thenThrow(new DataAccessResourceFailureException("db down"));
+        var writer = new UnitEventWriter(jdbcTemplate, 2);
+
+        assertThat(writer.flush()).isZero();
+        verify(jdbcTemplate, never()).update(eq("delete from unit_event_outbox where id = ?"), any());
+    }
+
+    @Test
+    void testRejectedEventIsDroppedWithoutHoldingUpTheRest() throws SQLException {
+        when(jdbcTemplate.update(contains("skip locked"), eq(3)))
+                .thenThrow(new DataIntegrityViolationException("unit 2 does not exist"))
+                .thenReturn(0);
+        var outbox = List.of(row(11, 1), row(12, 2), row(13, 3));
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(3))).thenAnswer(invocation -> {
+            RowMapper<?> mapper = invocation.getArgument(1);
+            List<Object> entries = new ArrayList<>();
+            for (var rs : outbox) {
+                entries.add(mapper.mapRow(rs, entries.size()));
+            }
+            return entries;
+        });
+        when(jdbcTemplate.update(contains("where id = ?\n"), any())).thenAnswer(invocation -> {
+            if (invocation.getArgument(1).equals(12L)) {
+                throw new DataIntegrityViolationException("unit 2 does not exist");
+            }
+            return 1;
+        });
+        when(jdbcTemplate.update("delete from unit_event_outbox where id = ?", 12L)).thenReturn(1);
+        var writer = new UnitEventWriter(jdbcTemplate, 3);
+
+        assertThat(writer.flush()).isEqualTo(2);
+        verify(jdbcTemplate).update("delete from unit_event_outbox where id = ?", 12L);
+    }
+
+    private void recordWrites() {
+        doAnswer(invocation -> {
+            List<PendingUnitEvent> batch = invocation.getArgument(1);
+            written.add(batch.stream().map(PendingUnitEvent::unitId).toList());
+            return new int[0][];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList(), anyInt(), any());
+    }
+
+    private ResultSet row(long id, long unitId) throws SQLException {
+        var rs = mock(ResultSet.class);
+        when(rs.getLong("id")).thenReturn(id);
+        when(rs.getLong("unit_id")).thenReturn(unitId);
+        when(rs.getString("event_type")).thenReturn(UnitEventType.BOOKED.name());
+        when(rs.getString("details")).thenReturn("details");
+        when(rs.getTimestamp("created_at")).thenReturn(Timestamp.from(Instant.now()));
+        return rs;
+    }
+
+    private List<PendingUnitEvent> events(long... unitIds) {
+        return LongStream.of(unitIds)
+                .mapToObj(unitId -> new PendingUnitEvent(unitId, UnitEventType.BOOKED, "details", Instant.now()))
+                .toList();
+    }
+}
@@ -0,0 +1,72 @@
+package am.asukiasyan.booking.expiry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    private static final long TICK = 1000;
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    void testAdvanceFiresWithinOneTickOfDeadline() {
+        var wheel = new TimingWheel<Long>(TICK, START);
+        wheel.schedule(1L, START + 2_500);
+        wheel.schedule(2L, START + 15 * 60 * 1000);
+
+        assertThat(wheel.advance(START + 2_000)).isEmpty();
+        assertThat(wheel.advance(START + 3_000)).containsExactly(1L);
+        assertThat(wheel.advance(START + 15 * 60 * 1000 - TICK)).isEmpty();
+        assertThat(wheel.advance(START + 15 * 60 * 1000)).containsExactly(2L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void testCancelledKeysNeverFire() {
+        var wheel = new TimingWheel<Long>(TICK, START);
+        wheel.schedule(1L, START + 5_000);
+        wheel.cancel(1L);
+
+        assertThat(wheel.advance(START + 10_000)).isEmpty();
+    }
+
+    @Test
+    void testRescheduleReplacesEarlierDeadline() {
+        var wheel = new TimingWheel<Long>(TICK, START);
+        wheel.schedule(1L, START + 5_000);
+        wheel.schedule(1L, START + 120_000);
+
+        assertThat(wheel.advance(START + 60_000)).isEmpty();
+        assertThat(wheel.advance(START + 120_000)).containsExactly(1L);
+    }
+
+    @Test
+    void testPastDeadlineFiresOnNextTick() {
+        var wheel = new TimingWheel<Long>(TICK, START);
+        wheel.schedule(1L, START - 60_000);
+
+        assertThat(wheel.advance(START + TICK)).containsExactly(1L);
+    }
+
+    @Test
+    void testDistantDeadlinesCascadeThroughAllLevels() {
+        var wheel = new TimingWheel<Long>(TICK, START);
+        var deadlines = List.of(70_000L, 5_000_000L, 400_000_000L);
+        for (int i = 0; i < deadlines.size(); i++) {
+            wheel.schedule((long) i, START + deadlines.get(i));
+        }
+
+        List<Long> fired = new ArrayList<>();
+        for (long now = START; fired.size() < deadlines.size(); now += 60 * TICK) {
+            for (Long key : wheel.advance(now)) {
+                assertThat(now - START).isBetween(deadlines.get(key.intValue()), deadlines.get(key.intValue()) + 60 * TICK);
+                fired.add(key);
+            }
+        }
+        assertThat(fired).containsExactly(0L, 1L, 2L);
+    }
+}
@@ -0,0 +1,109 @@
+package am.asukiasyan.booking.integration;
+
+import am.asukiasyan.booking.archive.BookingArchiver;
+import am.asukiasyan.booking.domain.Booking;
+import am.asukiasyan.booking.domain.Payment;
+import am.asukiasyan.booking.enums.BookingStatus;
+import am.asukiasyan.booking.enums.PaymentStatus;
+import am.asukiasyan.booking.repository.BookingRepository;
+import am.asukiasyan.booking.repository.PaymentRepository;
+import am.asukiasyan.booking.repository.UnitRepository;
+import am.asukiasyan.booking.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "booking.archive.retention-months=1")
+@Testcontainers
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class BookingArchiveIntegrationTest extends TestContainersConfig {
+
+    @Autowired
+    private BookingArchiver bookingArchiver;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private UnitRepository unitRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void movesClosedBookingsToMonthlyPartitionsAndDetachesExpiredOnes() {
+        var thisMonth = YearMonth.now();
+        var lastMonth = thisMonth.minusMonths(1);
+        var threeMonthsAgo = thisMonth.minusMonths(3);
+        var current = save(95L, thisMonth.atDay(1), LocalDate.now().plusDays(3));
+        var closed = save(96L, lastMonth.atDay(10), lastMonth.atDay(12));
+        var expired = save(97L, threeMonthsAgo.atDay(5), threeMonthsAgo.atDay(6));
+        paymentRepository.save(Payment.builder()
+                .booking(closed)
+                .status(PaymentStatus.PAID)
+                .paidAt(Instant.now())
+                .build());
+
+        var archived = bookingArchiver.archive();
+
+        assertThat(archived).isEqualTo(2);
+        assertThat(bookingRepository.findById(current.getId())).isPresent();
+        assertThat(bookingRepository.findById(closed.getId())).isEmpty();
+        assertThat(bookingRepository.findById(expired.getId())).isEmpty();
+        assertThat(paymentRepository.findAll()).noneMatch(payment -> payment.getBooking().getId().equals(closed.getId()));
+
+        assertThat(jdbcTemplate.queryForObject("select payment_status from " + partition(lastMonth) + " where id = ?",
+                String.class, closed.getId())).isEqualTo(PaymentStatus.PAID.name());
+        assertThat(jdbcTemplate.queryForObject("select count(*) from bookings_archive where id = ?",
+                Long.class, expired.getId())).isZero();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from " + partition(threeMonthsAgo) + "_detached_1 where id = ?",
+                Long.class, expired.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void archivesLateBookingsOfDetachedMonthsIntoFreshPartition() {
+        var fourMonthsAgo = YearMonth.now().minusMonths(4);
+        var first = save(94L, fourMonthsAgo.atDay(5), fourMonthsAgo.atDay(6));
+        assertThat(bookingArchiver.archive()).isEqualTo(1);
+
+        var late = save(94L, fourMonthsAgo.atDay(8), fourMonthsAgo.atDay(9));
+        assertThat(bookingArchiver.archive()).isEqualTo(1);
+
+        assertThat(bookingRepository.findById(late.getId())).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from " + partition(fourMonthsAgo) + "_detached_1 where id = ?",
+                Long.class, first.getId())).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from " + partition(fourMonthsAgo) + "_detached_2 where id = ?",
+                Long.class, late.getId())).isEqualTo(1);
+    }
+
+    private Booking save(Long unitId, LocalDate startDate, LocalDate endDate) {
+        return bookingRepository.save(Booking.builder()
+                .unit(unitRepository.findById(unitId).orElseThrow())
+                .user(userRepository.findById(1L).orElseThrow())
+                .startDate(startDate)
+                .endDate(endDate)
+                .status(BookingStatus.CONFIRMED)
+                .totalCost(new BigDecimal("100.00"))
+                .build());
+    }
+
+    private String partition(YearMonth month) {
+        return "bookings_archive_" + month.toString().replace('-', '_');
+    }
+}
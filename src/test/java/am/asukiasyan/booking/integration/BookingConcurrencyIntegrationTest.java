@@ -0,0 +1,192 @@
+package am.asukiasyan.booking.integration;
+
+import am.asukiasyan.booking.dto.BatchBookingRequest;
+import am.asukiasyan.booking.dto.BookingRequest;
+import am.asukiasyan.booking.enums.BatchMode;
+import am.asukiasyan.booking.exception.ConflictException;
+import am.asukiasyan.booking.service.BookingService;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Slf4j
+@SpringBootTest
+@Testcontainers
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class BookingConcurrencyIntegrationTest extends TestContainersConfig {
+
+    private static final int THREADS = 8;
+    private static final int BOOKINGS = 40;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    /**
+     * Inside the occupancy horizon (400 days) claims go through the index; beyond it only through the database.
+     */
+    @ParameterizedTest(name = "{0} days ahead")
+    @ValueSource(ints = {100, 500})
+    void overlappingConcurrentBookingsOfSameUnitAdmitExactlyOne(int daysAhead) throws Exception {
+        var start = LocalDate.now().plusDays(daysAhead);
+        var request = new BookingRequest(2L, 1L, start, start.plusDays(3));
+
+        var outcomes = runConcurrently(IntStream.range(0, THREADS)
+                .mapToObj(i -> (Callable<Boolean>) () -> book(request))
+                .toList());
+
+        assertThat(outcomes).filteredOn(Boolean::booleanValue).hasSize(1);
+    }
+
+    @ParameterizedTest(name = "{0} days ahead")
+    @ValueSource(ints = {150, 700})
+    void concurrentBatchesOverSameUnitsInDifferentOrderAdmitExactlyOne(int daysAhead) throws Exception {
+        var start = LocalDate.now().plusDays(daysAhead);
+        var requests = IntStream.rangeClosed(20, 39)
+                .mapToObj(unitId -> new BookingRequest((long) unitId, 1L, start, start.plusDays(2)))
+                .toList();
+        var reversed = new ArrayList<>(requests);
+        Collections.reverse(reversed);
+
+        var outcomes = runConcurrently(IntStream.range(0, THREADS)
+                .mapToObj(i -> (Callable<Boolean>) () -> bookBatch(i % 2 == 0 ? requests : reversed))
+                .toList());
+
+        assertThat(outcomes).filteredOn(Boolean::booleanValue).hasSize(1);
+    }
+
+    /**
+     * Holds one booking transaction of a unit open and books other days of the same unit meanwhile. Without the unit
+     * row lock the second booking commits while the first is still in flight; with the lock it has to wait.
+     */
+    @Test
+    void nonOverlappingBookingOfSameUnitDoesNotWaitForOpenTransaction() throws Exception {
+        var start = LocalDate.now().plusDays(120);
+        var release = new CountDownLatch(1);
+        var held = new CountDownLatch(1);
+        try (var executor = Executors.newFixedThreadPool(2)) {
+            var holder = executor.submit(() -> transactionTemplate.execute(status -> {
+                var booked = book(new BookingRequest(5L, 1L, start, start.plusDays(1)));
+                held.countDown();
+                await(release);
+                return booked;
+            }));
+            assertThat(held.await(10, TimeUnit.SECONDS)).isTrue();
+
+            var other = executor.submit(() -> book(new BookingRequest(5L, 1L, start.plusDays(5), start.plusDays(6))));
+            assertThat(other.get(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(holder.isDone()).isFalse();
+
+            var locked = executor.submit(() -> transactionTemplate.execute(status -> {
+                lockUnit(5L);
+                return book(new BookingRequest(5L, 1L, start.plusDays(10), start.plusDays(11)));
+            }));
+            assertThatThrownBy(() -> locked.get(1, TimeUnit.SECONDS)).isInstanceOf(TimeoutException.class);
+
+            release.countDown();
+            assertThat(holder.get(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(locked.get(10, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    @Test
+    void nonOverlappingBookingsOfSameUnitRunInParallel() throws Exception {
+        long locked = timeBookings(3L, 200, request -> () -> transactionTemplate.execute(status -> {
+            lockUnit(request.unitId());
+            return book(request);
+        }));
+        long lockFree = timeBookings(4L, 300, request -> () -> book(request));
+
+        log.info("Same-unit bookings: {} in {} ms with unit row lock, {} ms with exclusion constraint",
+                BOOKINGS, locked, lockFree);
+    }
+
+    private void lockUnit(Long unitId) {
+        entityManager.createNativeQuery("select id from units where id = :id for update")
+                .setParameter("id", unitId)
+                .getSingleResult();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(30, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private long timeBookings(Long unitId,
+                              int dayOffset,
+                              Function<BookingRequest, Callable<Boolean>> task) throws Exception {
+        var base = LocalDate.now().plusDays(dayOffset);
+        var tasks = IntStream.range(0, BOOKINGS)
+                .mapToObj(i -> new BookingRequest(unitId, 1L, base.plusDays(i * 2L), base.plusDays(i * 2L + 1)))
+                .map(task)
+                .toList();
+
+        var started = System.nanoTime();
+        var outcomes = runConcurrently(tasks);
+        var elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        assertThat(outcomes).containsOnly(true).hasSize(BOOKINGS);
+        return elapsedMillis;
+    }
+
+    private boolean book(BookingRequest request) {
+        try {
+            bookingService.createBooking(request);
+            return true;
+        } catch (ConflictException ex) {
+            return false;
+        }
+    }
+
+    private boolean bookBatch(List<BookingRequest> requests) {
+        try {
+            bookingService.createBookings(new BatchBookingRequest(requests, BatchMode.ALL_OR_NOTHING));
+            return true;
+        } catch (ConflictException ex) {
+            return false;
+        }
+    }
+
+    private List<Boolean> runConcurrently(List<Callable<Boolean>> tasks) throws InterruptedException, ExecutionException {
+        try (var executor = Executors.newFixedThreadPool(THREADS)) {
+            List<Boolean> outcomes = new ArrayList<>();
+            for (Future<Boolean> future : executor.invokeAll(tasks)) {
+                outcomes.add(future.get());
+            }
+            return outcomes;
+        }
+    }
+}
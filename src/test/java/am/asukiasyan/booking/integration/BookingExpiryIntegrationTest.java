@@ -4,6 +4,7 @@ import am.asukiasyan.booking.domain.Booking;
 import am.asukiasyan.booking.domain.Unit;
 import am.asukiasyan.booking.domain.User;
 import am.asukiasyan.booking.enums.BookingStatus;
+import am.asukiasyan.booking.event.UnitEventWriter;
 import am.asukiasyan.booking.repository.BookingRepository;
 import am.asukiasyan.booking.repository.UnitEventRepository;
 import am.asukiasyan.booking.repository.UnitRepository;
@@ -38,6 +39,9 @@ class BookingExpiryIntegrationTest extends TestContainersConfig {
     @Autowired
     private UnitEventRepository unitEventRepository;
 
+    @Autowired
+    private UnitEventWriter unitEventWriter;
+
     @Autowired
     private BookingService bookingService;
 
@@ -49,6 +53,7 @@ class BookingExpiryIntegrationTest extends TestContainersConfig {
         var saved = bookingRepository.save(expiredPendingBooking(unit, user));
 
         var cancelled = bookingService.cancelExpiredBookings();
+        unitEventWriter.flush();
 
         var cancelledBooking = bookingRepository.findById(saved.getId()).orElseThrow();
         assertThat(cancelled).isGreaterThanOrEqualTo(1);
@@ -0,0 +1,138 @@
+package am.asukiasyan.booking.integration;
+
+import am.asukiasyan.booking.archive.BookingArchiver;
+import am.asukiasyan.booking.domain.Booking;
+import am.asukiasyan.booking.dto.UnitResponse;
+import am.asukiasyan.booking.dto.UnitSearchRequest;
+import am.asukiasyan.booking.enums.BookingStatus;
+import am.asukiasyan.booking.enums.ExportFormat;
+import am.asukiasyan.booking.enums.UnitType;
+import am.asukiasyan.booking.repository.BookingRepository;
+import am.asukiasyan.booking.repository.UnitRepository;
+import am.asukiasyan.booking.repository.UserRepository;
+import am.asukiasyan.booking.service.ExportService;
+import am.asukiasyan.booking.service.UnitService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Testcontainers
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class ExportIntegrationTest extends TestContainersConfig {
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private UnitService unitService;
+
+    @Autowired
+    private BookingArchiver bookingArchiver;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UnitRepository unitRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void exportedUnitsMatchSearchResultsForTheSameFilters() throws Exception {
+        var start = LocalDate.now().plusDays(900);
+        save(98L, start, start.plusDays(2));
+        var filters = List.of(
+                new UnitSearchRequest(null, UnitType.HOME, null, null, null, null, null, 0, 1000, "id", Sort.Direction.ASC,
+                        null, null, null),
+                new UnitSearchRequest(null, null, null, new BigDecimal("50"), new BigDecimal("400"), start,
+                        start.plusDays(1), 0, 1000, "id", Sort.Direction.ASC, null, null, null));
+
+        for (var request : filters) {
+            var expected = unitService.search(request).content();
+
+            var output = new ByteArrayOutputStream();
+            var written = exportService.exportUnits(request, ExportFormat.NDJSON, output);
+
+            var exported = output.toString(StandardCharsets.UTF_8).lines().map(this::readUnit).toList();
+            assertThat(written).isEqualTo(expected.size());
+            assertThat(exported).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void bookingExportIncludesArchivedBookingsAndRereadsTheOverlap() throws Exception {
+        var twoMonthsAgo = YearMonth.now().minusMonths(2);
+        var archived = save(97L, twoMonthsAgo.atDay(3), twoMonthsAgo.atDay(4));
+        bookingArchiver.archive();
+        var start = LocalDate.now().plusDays(950);
+        var live = save(100L, start, start.plusDays(2));
+
+        assertThat(bookingRepository.findById(archived.getId())).isEmpty();
+        assertThat(exportedBookingIds(null)).contains(archived.getId(), live.getId());
+        assertThat(exportedBookingIds(live.getUpdatedAt().plusSeconds(60))).contains(live.getId());
+        assertThat(exportedBookingIds(Instant.now().plus(Duration.ofHours(1)))).isEmpty();
+    }
+
+    @Test
+    void unitEventExportIsOrderedByRecordedTime() throws Exception {
+        var output = new ByteArrayOutputStream();
+        var written = exportService.exportUnitEvents(null, ExportFormat.CSV, output);
+
+        var recorded = output.toString(StandardCharsets.UTF_8).lines()
+                .skip(1)
+                .map(line -> Instant.parse(line.substring(line.lastIndexOf(',') + 1)))
+                .toList();
+        assertThat(written).isPositive();
+        assertThat(recorded).hasSize((int) written).isSorted();
+    }
+
+    private List<Long> exportedBookingIds(Instant since) throws IOException {
+        var output = new ByteArrayOutputStream();
+        exportService.exportBookings(since, ExportFormat.CSV, output);
+        return output.toString(StandardCharsets.UTF_8).lines()
+                .skip(1)
+                .map(line -> Long.parseLong(line.substring(0, line.indexOf(','))))
+                .toList();
+    }
+
+    private UnitResponse readUnit(String line) {
+        try {
+            return objectMapper.readValue(line, UnitResponse.class);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private Booking save(Long unitId, LocalDate startDate, LocalDate endDate) {
+        return bookingRepository.save(Booking.builder()
+                .unit(unitRepository.findById(unitId).orElseThrow())
+                .user(userRepository.findById(1L).orElseThrow())
+                .startDate(startDate)
+                .endDate(endDate)
+                .status(BookingStatus.CONFIRMED)
+                .totalCost(new BigDecimal("100.00"))
+                .build());
+    }
+}
@@ -0,0 +1,141 @@
+package am.asukiasyan.booking.integration;
+
+import am.asukiasyan.booking.enums.UnitType;
+import am.asukiasyan.booking.repository.BookingRepository;
+import am.asukiasyan.booking.repository.UnitRepository;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the index strategy of the hot queries. Each test runs a repository method, takes the SQL Hibernate issued
+ * for it and checks that its generic plan, the one used for any bound values, reads the index meant for it. The test
+ * tables are far too small for the planner to prefer any index on cost, so sequential scans are disabled for the
+ * transaction; the planner then picks the cheapest index whose columns and partial predicate match the query.
+ */
+@SpringBootTest
+@Testcontainers
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class QueryPlanIntegrationTest extends TestContainersConfig {
+
+    private static final List<String> ISSUED = new CopyOnWriteArrayList<>();
+
+    private final LocalDate today = LocalDate.now();
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UnitRepository unitRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @TestConfiguration
+    static class CaptureIssuedSql {
+
+        @Bean
+        HibernatePropertiesCustomizer captureIssuedSql() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+                ISSUED.add(sql);
+                return sql;
+            });
+        }
+    }
+
+    @Test
+    void existsActiveBookingUsesActiveUnitDatesIndex() {
+        assertThat(planOf(() -> bookingRepository.existsActiveBooking(1L, today, today.plusDays(7))))
+                .contains("idx_bookings_active_unit_dates");
+    }
+
+    @Test
+    void countAvailableTodayUsesActiveUnitDatesIndex() {
+        assertThat(planOf(() -> unitRepository.countAvailableToday(today)))
+                .contains("idx_bookings_active_unit_dates");
+    }
+
+    /**
+     * A window past the occupancy index horizon, so the search checks availability with NOT EXISTS.
+     */
+    @Test
+    void searchNotExistsUsesActiveUnitDatesIndex() {
+        var start = today.plusYears(2);
+        assertThat(planOf(() -> unitRepository.search(null, null, null, null, null, start, start.plusDays(3), true,
+                PageRequest.of(0, 20), new BigDecimal("1.15"))))
+                .contains("idx_bookings_active_unit_dates");
+    }
+
+    @Test
+    void searchCountUsesUnitsSearchIndex() {
+        assertThat(planOf(() -> unitRepository.countMatching(UnitType.FLAT, 2, null, new BigDecimal("100"), null,
+                null, null, false)))
+                .contains("idx_units_search");
+    }
+
+    @Test
+    void findActiveSpansUsesActiveDatesIndex() {
+        assertThat(planOf(() -> bookingRepository.findActiveSpans(today, today.plusDays(7))))
+                .contains("idx_bookings_active_dates");
+    }
+
+    @Test
+    void claimExpiredBookingsUsesPendingExpiresAtIndex() {
+        assertThat(planOf(() -> bookingRepository.claimExpiredBookings(Instant.now(), 500)))
+                .contains("idx_bookings_pending_expires_at");
+    }
+
+    @Test
+    void findPendingExpiriesUsesPendingExpiresAtIndex() {
+        assertThat(planOf(bookingRepository::findPendingExpiries))
+                .contains("idx_bookings_pending_expires_at");
+    }
+
+    private String planOf(Runnable query) {
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("set local enable_seqscan = off");
+            ISSUED.clear();
+            query.run();
+            assertThat(ISSUED).isNotEmpty();
+            var sql = numberParameters(ISSUED.getLast());
+            return String.join("\n", jdbcTemplate.queryForList("explain (generic_plan) " + sql, String.class));
+        });
+    }
+
+    /**
+     * JDBC placeholders as the numbered parameters {@code EXPLAIN (GENERIC_PLAN)} expects.
+     */
+    private static String numberParameters(String sql) {
+        var numbered = new StringBuilder();
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return numbered.toString();
+    }
+}
@@ -0,0 +1,136 @@
+package am.asukiasyan.booking.integration;
+
+import am.asukiasyan.booking.cache.UnitSearchCache;
+import am.asukiasyan.booking.datasource.ReadReplicas;
+import am.asukiasyan.booking.dto.UnitRequest;
+import am.asukiasyan.booking.dto.UnitResponse;
+import am.asukiasyan.booking.dto.UnitSearchRequest;
+import am.asukiasyan.booking.enums.UnitType;
+import am.asukiasyan.booking.repository.UnitRepository;
+import am.asukiasyan.booking.service.UnitService;
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.MethodOrderer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+
+import static am.asukiasyan.booking.TestDataHelper.POSTGRES_DB;
+import static am.asukiasyan.booking.TestDataHelper.POSTGRES_IMAGE;
+import static am.asukiasyan.booking.TestDataHelper.POSTGRES_PASSWORD;
+import static am.asukiasyan.booking.TestDataHelper.POSTGRES_USER;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against a second, independently migrated Postgres standing in for a replica. The two databases are told
+ * apart by a unit description that only the replica has.
+ */
+@SpringBootTest
+@Testcontainers
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class ReadReplicaIntegrationTest extends TestContainersConfig {
+
+    private static final String REPLICA_DESCRIPTION = "Served by the replica";
+
+    @Container
+    @SuppressWarnings("resource")
+    private static final PostgreSQLContainer<?> REPLICA = new PostgreSQLContainer<>(DockerImageName.parse(POSTGRES_IMAGE))
+            .withDatabaseName(POSTGRES_DB + "replica")
+            .withUsername(POSTGRES_USER)
+            .withPassword(POSTGRES_PASSWORD);
+
+    @Autowired
+    private UnitRepository unitRepository;
+
+    @Autowired
+    private ReadReplicas readReplicas;
+
+    @Autowired
+    private UnitService unitService;
+
+    @Autowired
+    private UnitSearchCache unitSearchCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @DynamicPropertySource
+    static void registerReplica(DynamicPropertyRegistry registry) {
+        if (!REPLICA.isRunning()) {
+            REPLICA.start();
+        }
+        registry.add("booking.datasource.replica.urls", REPLICA::getJdbcUrl);
+        registry.add("booking.datasource.replica.lag-check-interval-ms", () -> 600_000);
+    }
+
+    @BeforeAll
+    void migrateReplica() throws Exception {
+        var dataSource = new DriverManagerDataSource(REPLICA.getJdbcUrl(), REPLICA.getUsername(), REPLICA.getPassword());
+        var liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog("classpath:db/changelog/db.changelog-master.yaml");
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+        new JdbcTemplate(dataSource).update("update units set description = ? where id = 1", REPLICA_DESCRIPTION);
+        readReplicas.refresh();
+    }
+
+    @Test
+    @Order(1)
+    void readOnlyTransactionsAreServedByReplica() {
+        assertThat(readDescription(true)).isEqualTo(REPLICA_DESCRIPTION);
+        assertThat(readDescription(false)).isNotEqualTo(REPLICA_DESCRIPTION);
+    }
+
+    @Test
+    @Order(1)
+    void searchServedByReplicaIsNotCachedRightAfterAMatchingWrite() {
+        var created = unitService.create(new UnitRequest(2, UnitType.FLAT, 3, "Only on the primary",
+                new BigDecimal("50")));
+        var cachedBefore = unitSearchCache.size();
+
+        var units = unitService.search(new UnitSearchRequest(null, null, null, null, null, null, null, 0, 1000, "id",
+                Sort.Direction.ASC, null, null, null)).content();
+
+        assertThat(units).extracting(UnitResponse::id).doesNotContain(created.id());
+        assertThat(units).filteredOn(unit -> unit.id() == 1L).singleElement()
+                .extracting(UnitResponse::description).isEqualTo(REPLICA_DESCRIPTION);
+        assertThat(unitSearchCache.size()).isEqualTo(cachedBefore);
+    }
+
+    @Test
+    @Order(2)
+    void readOnlyTransactionsFallBackToPrimaryWhenReplicaIsUnavailable() {
+        REPLICA.stop();
+        readReplicas.refresh();
+
+        assertThat(readReplicas.pick()).isNull();
+        assertThat(readDescription(true)).isNotEqualTo(REPLICA_DESCRIPTION);
+    }
+
+    private String readDescription(boolean readOnly) {
+        var template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template.execute(status -> unitRepository.findById(1L).orElseThrow().getDescription());
+    }
+}
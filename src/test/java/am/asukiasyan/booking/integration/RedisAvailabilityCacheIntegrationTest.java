@@ -1,13 +1,22 @@
 package am.asukiasyan.booking.integration;
 
 import am.asukiasyan.booking.cache.RedisAvailabilityCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import static am.asukiasyan.booking.TestDataHelper.REDIS_PORT;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -15,12 +24,15 @@ import static org.assertj.core.api.Assertions.assertThat;
 @Testcontainers
 class RedisAvailabilityCacheIntegrationTest extends TestContainersConfig {
 
+    private LettuceConnectionFactory connectionFactory;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     private RedisAvailabilityCache createCache() {
         var config = new RedisStandaloneConfiguration(
                 REDIS.getHost(),
                 REDIS.getMappedPort(REDIS_PORT)
         );
-        var connectionFactory = new LettuceConnectionFactory(config);
+        connectionFactory = new LettuceConnectionFactory(config);
         connectionFactory.afterPropertiesSet();
         var template = new StringRedisTemplate(connectionFactory);
         template.afterPropertiesSet();
@@ -28,22 +40,92 @@ class RedisAvailabilityCacheIntegrationTest extends TestContainersConfig {
                 .getConnection()
                 .serverCommands()
                 .flushAll();
-        return new RedisAvailabilityCache(template);
+        return new RedisAvailabilityCache(template, meterRegistry);
     }
 
     @Test
-    void incrementsAndDecrementsBoundedAtZero() {
+    void adjustsDaysBoundedAtZero() {
         RedisAvailabilityCache cache = createCache();
-        cache.update(3);
+        var today = LocalDate.now();
+        cache.update(today, 3);
+        cache.update(today.plusDays(1), 1);
 
-        cache.increment();
-        cache.increment();
-        for (int i = 0; i < 7; i++) {
-            cache.decrement();
-        }
+        cache.adjust(Map.of(today, 2L));
+        cache.adjust(Map.of(today, -7L, today.plusDays(1), -1L, today.plusDays(2), -1L));
+
+        assertThat(cache.find(today)).isZero();
+        assertThat(cache.find(today.plusDays(1))).isZero();
+        assertThat(cache.find(today.plusDays(2))).isNull();
+        cache.update(today, 5);
+        assertThat(cache.find(today)).isEqualTo(5);
+    }
+
+    @Test
+    void scriptedOperationsApplyAtomicallyAndReturnNewValue() {
+        RedisAvailabilityCache cache = createCache();
+        var today = LocalDate.now();
+
+        assertThat(cache.adjust(Map.of(today, 2L))).isZero();
+        assertThat(cache.find(today)).isNull();
+
+        assertThat(cache.initializeIfAbsent(today, 4)).isEqualTo(4);
+        assertThat(cache.initializeIfAbsent(today, 10)).isEqualTo(4);
+        assertThat(cache.initializeIfAbsent(today.plusDays(1), 2)).isEqualTo(2);
+        assertThat(cache.adjustAll(1)).isEqualTo(2);
+        assertThat(cache.find(today)).isEqualTo(5);
+        assertThat(cache.find(today.plusDays(1))).isEqualTo(3);
+    }
+
+    @Test
+    void timesEachRoundTripByOperation() {
+        RedisAvailabilityCache cache = createCache();
+        var today = LocalDate.now();
+        cache.update(today, 2);
+        cache.find(today);
+        cache.find(today.plusDays(1));
+
+        assertThat(meterRegistry.get(RedisAvailabilityCache.METRIC).tag("operation", "find").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(RedisAvailabilityCache.METRIC).tag("operation", "update").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void removesDaysBeforeCutoff() {
+        RedisAvailabilityCache cache = createCache();
+        var today = LocalDate.now();
+        cache.update(today.minusDays(2), 1);
+        cache.update(today.minusDays(1), 1);
+        cache.update(today, 1);
 
-        assertThat(cache.get()).isEqualTo(0);
-        cache.update(5);
-        assertThat(cache.get()).isEqualTo(5);
+        assertThat(cache.removeBefore(today)).isEqualTo(2);
+        assertThat(cache.find(today.minusDays(1))).isNull();
+        assertThat(cache.find(today)).isEqualTo(1);
+    }
+
+    @Test
+    void publishesChangedDays() throws InterruptedException {
+        RedisAvailabilityCache cache = createCache();
+        var today = LocalDate.now();
+        BlockingQueue<String> messages = new LinkedBlockingQueue<>();
+        var container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> messages.add(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(RedisAvailabilityCache.CHANNEL));
+        container.afterPropertiesSet();
+        container.start();
+        try {
+            cache.update(today, 3);
+            cache.update(today.minusDays(1), 1);
+            cache.adjust(Map.of(today, -1L, today.plusDays(1), -1L));
+            cache.adjustAll(1);
+            cache.removeBefore(today);
+
+            assertThat(messages.poll(5, TimeUnit.SECONDS)).isEqualTo(today.toString());
+            assertThat(messages.poll(5, TimeUnit.SECONDS)).isEqualTo(today.minusDays(1).toString());
+            assertThat(messages.poll(5, TimeUnit.SECONDS)).isEqualTo(today.toString());
+            assertThat(messages.poll(5, TimeUnit.SECONDS)).isEqualTo(RedisAvailabilityCache.ALL_DAYS);
+            assertThat(messages.poll(5, TimeUnit.SECONDS)).isEqualTo(today.minusDays(1).toString());
+        } finally {
+            container.stop();
+        }
     }
 }
@@ -1,8 +1,11 @@
 package am.asukiasyan.booking.integration;
 
+import am.asukiasyan.booking.availability.OccupancyService;
 import am.asukiasyan.booking.domain.Booking;
 import am.asukiasyan.booking.domain.Unit;
 import am.asukiasyan.booking.enums.BookingStatus;
+import am.asukiasyan.booking.enums.CountMode;
+import am.asukiasyan.booking.enums.PaginationMode;
 import am.asukiasyan.booking.enums.UnitType;
 import am.asukiasyan.booking.dto.UnitResponse;
 import am.asukiasyan.booking.dto.UnitSearchRequest;
@@ -12,6 +15,7 @@ import am.asukiasyan.booking.repository.UnitRepository;
 import am.asukiasyan.booking.repository.UserRepository;
 import am.asukiasyan.booking.service.UnitService;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -51,6 +55,9 @@ class UnitSearchIntegrationTest extends TestContainersConfig {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private OccupancyService occupancyService;
+
     private final List<Unit> seededUnits = new ArrayList<>();
 
     @BeforeAll
@@ -78,6 +85,7 @@ class UnitSearchIntegrationTest extends TestContainersConfig {
                 .status(BookingStatus.CONFIRMED)
                 .totalCost(new BigDecimal("150.00"))
                 .build());
+        occupancyService.warmUp();
     }
 
     @ParameterizedTest(name = "{0}")
@@ -93,6 +101,44 @@ class UnitSearchIntegrationTest extends TestContainersConfig {
         }
     }
 
+    @Test
+    void keysetPagesWalkAllUnitsInSortOrder() {
+        var expected = unitRepository.findAll(Sort.by(Sort.Direction.DESC, "baseCost", "id")).stream()
+                .map(Unit::getId)
+                .toList();
+
+        List<Long> scrolled = new ArrayList<>();
+        String cursor = null;
+        do {
+            var page = unitService.search(new UnitSearchRequest(null, null, null, null, null, null, null, 0, 2,
+                    "baseCost", Sort.Direction.DESC, PaginationMode.KEYSET, cursor, null));
+            assertThat(page.totalElements()).isNull();
+            page.content().forEach(unit -> scrolled.add(unit.id()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertThat(scrolled).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void keysetPageCountsTotalWhenRequested() {
+        var page = unitService.search(new UnitSearchRequest(1, UnitType.FLAT, 601, null, null, null, null, 0, 1,
+                "id", Sort.Direction.ASC, PaginationMode.KEYSET, null, CountMode.EXACT));
+
+        assertThat(page.content()).extracting(UnitResponse::id).containsExactly(findByDescription("Search test available flat").getId());
+        assertThat(page.totalElements()).isEqualTo(2);
+        assertThat(page.nextCursor()).isNotNull();
+    }
+
+    @Test
+    void cappedCountStopsAtLimit() {
+        var exact = unitRepository.countMatching(null, null, null, null, null, null, null, false);
+
+        assertThat(unitRepository.countMatchingUpTo(null, null, null, null, null, null, null, false, 3)).isEqualTo(3);
+        assertThat(unitRepository.countMatchingUpTo(null, null, null, null, null, null, null, false, (int) exact + 10))
+                .isEqualTo(exact);
+    }
+
     Stream<SearchCase> unitSearchCases() {
         var today = LocalDate.now();
         var luxHome = findByDescription("Search test lux home");
@@ -167,7 +213,10 @@ class UnitSearchIntegrationTest extends TestContainersConfig {
                 0,
                 10,
                 sortBy,
-                direction
+                direction,
+                null,
+                null,
+                null
         );
     }
 
@@ -0,0 +1,110 @@
+package am.asukiasyan.booking.integration;
+
+import am.asukiasyan.booking.dto.BookingRequest;
+import am.asukiasyan.booking.dto.UnitSearchRequest;
+import am.asukiasyan.booking.exception.ConflictException;
+import am.asukiasyan.booking.service.AvailabilityService;
+import am.asukiasyan.booking.service.BookingService;
+import am.asukiasyan.booking.service.UnitService;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("virtual-threads")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class VirtualThreadIntegrationTest extends TestContainersConfig {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final Duration PIN_THRESHOLD = Duration.ofMillis(20);
+    private static final int TASKS = 200;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UnitService unitService;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Test
+    void scheduledTasksRunOnVirtualThreads() {
+        assertThat(taskScheduler).isInstanceOf(SimpleAsyncTaskScheduler.class);
+    }
+
+    @Test
+    void bookingPathDoesNotPinCarrierThreads() throws Exception {
+        List<String> pinned = new CopyOnWriteArrayList<>();
+        try (var recording = new RecordingStream()) {
+            recording.enable(PINNED_EVENT).withThreshold(PIN_THRESHOLD).withStackTrace();
+            recording.onEvent(PINNED_EVENT, event -> pinned.add(describe(event)));
+            recording.startAsync();
+
+            var base = LocalDate.now().plusDays(30);
+            var booked = new AtomicInteger();
+            List<Future<Integer>> results = new ArrayList<>();
+            try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                IntStream.range(0, TASKS).forEach(i -> results.add(executor.submit(() -> {
+                    var unitId = 11L + i % 40;
+                    var start = base.plusDays(i / 40 * 3L);
+                    try {
+                        bookingService.createBooking(new BookingRequest(unitId, 1L, start, start.plusDays(1)));
+                        booked.incrementAndGet();
+                    } catch (ConflictException ignored) {
+                        // contention on the same unit is part of the load
+                    }
+                    unitService.search(new UnitSearchRequest(null, null, null, null, null, start, start.plusDays(1),
+                            i % 5, 20, "baseCost", null, null, null, null));
+                    return availabilityService.getAvailableUnits(LocalDate.now().plusDays(i % 30));
+                })));
+            }
+            recording.stop();
+
+            for (var result : results) {
+                // rethrows any task failure, e.g. a connection pool timeout, instead of passing on an idle run
+                result.get();
+            }
+            assertThat(booked).hasPositiveValue();
+        }
+
+        assertThat(pinned).as("virtual threads pinned for longer than %s", PIN_THRESHOLD).isEmpty();
+    }
+
+    private String describe(RecordedEvent event) {
+        var stackTrace = event.getStackTrace();
+        if (stackTrace == null) {
+            return event.getDuration().toString();
+        }
+        return event.getDuration() + " at " + stackTrace.getFrames().stream()
+                .limit(8)
+                .map(RecordedFrame::getMethod)
+                .map(method -> method.getType().getName() + "." + method.getName())
+                .collect(Collectors.joining(" <- "));
+    }
+}
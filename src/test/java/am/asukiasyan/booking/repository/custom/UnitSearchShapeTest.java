@@ -0,0 +1,82 @@
+package am.asukiasyan.booking.repository.custom;
+
+import am.asukiasyan.booking.repository.custom.UnitSearchShape.Availability;
+import am.asukiasyan.booking.repository.custom.UnitSearchShape.Result;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UnitSearchShapeTest {
+
+    @Test
+    void testPageWithoutFiltersOnlyOrders() {
+        var shape = new UnitSearchShape(Result.PAGE, false, false, false, false, false, Availability.NONE, false,
+                List.of(Sort.Order.desc("baseCost"), Sort.Order.asc("id")));
+
+        assertThat(shape.toJpql())
+                .isEqualTo(UnitSearchShape.SELECT_RESPONSE + " order by u.baseCost desc, u.id asc");
+    }
+
+    @Test
+    void testCountBindsEveryFilterAndChecksBookings() {
+        var shape = new UnitSearchShape(Result.COUNT, true, true, true, true, true, Availability.NOT_EXISTS, false,
+                List.of());
+
+        assertThat(shape.toJpql())
+                .startsWith("select count(u) from Unit u where u.type = :type and u.rooms = :rooms and u.floor = :floor"
+                        + " and u.baseCost >= :minBaseCost and u.baseCost <= :maxBaseCost and not exists (")
+                .contains("b.status <> 'CANCELLED'", "b.endDate >= :startDate", "b.startDate <= :endDate")
+                .doesNotContain("order by");
+    }
+
+    @Test
+    void testIdsSelectsOnlyIdsWithoutOrdering() {
+        var shape = new UnitSearchShape(Result.IDS, false, true, false, false, false, Availability.NONE, false,
+                List.of());
+
+        assertThat(shape.toJpql()).isEqualTo("select u.id from Unit u where u.rooms = :rooms");
+    }
+
+    @Test
+    void testKeysetAfterCursorSeeksOnSortKeyThenId() {
+        var shape = new UnitSearchShape(Result.KEYSET, true, false, false, false, false, Availability.EXCLUDED_UNITS,
+                true, List.of(Sort.Order.asc("baseCost"), Sort.Order.asc("id")));
+
+        assertThat(shape.toJpql()).isEqualTo(UnitSearchShape.SELECT_RESPONSE
+                + " where u.type = :type and u.id not in :occupied"
+                + " and (u.baseCost >= :lastSortValue and (u.baseCost > :lastSortValue or u.id > :lastId))"
+                + " order by u.baseCost asc, u.id asc");
+    }
+
+    @Test
+    void testKeysetOnIdDescendingSeeksOnIdOnly() {
+        var shape = new UnitSearchShape(Result.KEYSET, false, false, false, false, false, Availability.NONE, true,
+                List.of(Sort.Order.desc("id")));
+
+        assertThat(shape.toJpql())
+                .isEqualTo(UnitSearchShape.SELECT_RESPONSE + " where u.id < :lastId order by u.id desc");
+    }
+
+    @Test
+    void testRowsAreProjectedWithMarkupComputedInSql() {
+        var shape = new UnitSearchShape(Result.PAGE, false, false, false, false, false, Availability.NONE, false,
+                List.of(Sort.Order.asc("id")));
+
+        assertThat(shape.toJpql())
+                .startsWith("select new am.asukiasyan.booking.dto.UnitResponse(")
+                .contains("round(u.baseCost * :markup, 2)");
+    }
+
+    @Test
+    void testSameFiltersShareOneShape() {
+        var first = new UnitSearchShape(Result.PAGE, true, false, false, true, false, Availability.NONE, false,
+                List.of(Sort.Order.asc("id")));
+        var second = new UnitSearchShape(Result.PAGE, true, false, false, true, false, Availability.NONE, false,
+                List.of(Sort.Order.asc("id")));
+
+        assertThat(first).isEqualTo(second).hasSameHashCodeAs(second);
+    }
+}
@@ -1,5 +1,6 @@
 package am.asukiasyan.booking.schedule;
 
+import am.asukiasyan.booking.expiry.BookingExpiryWheel;
 import am.asukiasyan.booking.service.BookingService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -7,6 +8,11 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -14,6 +20,9 @@ import static org.mockito.Mockito.when;
 @ExtendWith(MockitoExtension.class)
 class BookingExpirySchedulerTest {
 
+    @Mock
+    private BookingExpiryWheel expiryWheel;
+
     @Mock
     private BookingService bookingService;
 
@@ -28,4 +37,34 @@ class BookingExpirySchedulerTest {
 
         verify(bookingService, times(1)).cancelExpiredBookings();
     }
+
+    @Test
+    void cancelDueCancelsBookingsFromWheel() {
+        when(expiryWheel.pollExpired(any())).thenReturn(List.of(1L, 2L));
+        when(bookingService.cancelExpiredBookings(List.of(1L, 2L))).thenReturn(2);
+
+        scheduler.cancelDue();
+
+        verify(bookingService).cancelExpiredBookings(List.of(1L, 2L));
+        verify(expiryWheel, never()).retry(anyCollection());
+    }
+
+    @Test
+    void cancelDueSkipsServiceWhenNothingIsDue() {
+        when(expiryWheel.pollExpired(any())).thenReturn(List.of());
+
+        scheduler.cancelDue();
+
+        verify(bookingService, never()).cancelExpiredBookings(anyCollection());
+    }
+
+    @Test
+    void cancelDueRetriesWhenCancellationFails() {
+        when(expiryWheel.pollExpired(any())).thenReturn(List.of(1L));
+        when(bookingService.cancelExpiredBookings(List.of(1L))).thenThrow(new RuntimeException("db down"));
+
+        scheduler.cancelDue();
+
+        verify(expiryWheel).retry(List.of(1L));
+    }
 }
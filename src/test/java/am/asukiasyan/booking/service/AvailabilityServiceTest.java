@@ -1,14 +1,20 @@
 package am.asukiasyan.booking.service;
 
 import am.asukiasyan.booking.cache.RedisAvailabilityCache;
+import am.asukiasyan.booking.exception.BadRequestException;
 import am.asukiasyan.booking.repository.UnitRepository;
+import am.asukiasyan.booking.repository.projection.BookingSpan;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
 
 import static am.asukiasyan.booking.TestDataHelper.DB_DOWN_MESSAGE;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -16,6 +22,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,101 +37,147 @@ class AvailabilityServiceTest {
     @InjectMocks
     private AvailabilityService availabilityService;
 
-    @Test
-    void testInitializeSuccessWhenCacheMissing() {
-        stubCacheMissing(3L);
+    private final LocalDate today = LocalDate.now();
 
-        availabilityService.initialize();
+    @Test
+    void testIncreaseAdjustsAllTrackedDays() {
+        availabilityService.increase();
 
-        verify(cache).hasValue();
-        verify(unitRepository).countAvailableToday(any(LocalDate.class));
-        verify(cache).update(3);
+        verify(cache).adjustAll(1);
+        verifyNoInteractions(unitRepository);
     }
 
     @Test
-    void testInitializeSuccessWhenCachePresent() {
-        stubCachePresent();
-
-        availabilityService.initialize();
+    void testDecreaseAdjustsEveryBookedDayInOneCall() {
+        availabilityService.decrease(today, today.plusDays(2));
 
-        verify(cache).hasValue();
-        verify(cache, never()).update(any(Integer.class));
-        verify(unitRepository, never()).countAvailableToday(any(LocalDate.class));
+        verify(cache).adjust(Map.of(today, -1L, today.plusDays(1), -1L, today.plusDays(2), -1L));
+        verifyNoInteractions(unitRepository);
     }
 
     @Test
-    void testIncreaseSuccess() {
-        stubCachePresent();
+    void testIncreaseSkipsPastAndBeyondHorizonDays() {
+        availabilityService.increase(today.minusDays(3), today);
+        availabilityService.increase(today.plusDays(200), today.plusDays(201));
 
-        availabilityService.increase();
-        verify(cache).increment();
+        verify(cache).adjust(Map.of(today, 1L));
+        verify(cache, never()).adjust(Map.of());
     }
 
     @Test
-    void testDecreaseIfPossibleSuccess() {
-        stubCachePresent();
+    void testIncreaseMergesReleasedSpans() {
+        availabilityService.increase(List.of(
+                new BookingSpan(1L, 1L, today, today.plusDays(1)),
+                new BookingSpan(2L, 2L, today.plusDays(1), today.plusDays(1))));
 
-        availabilityService.decreaseIfPossible();
-        verify(cache).decrement();
+        verify(cache).adjust(Map.of(today, 1L, today.plusDays(1), 2L));
     }
 
     @Test
-    void testRefreshFromDatabaseSuccess() {
-        when(unitRepository.countAvailableToday(any(LocalDate.class))).thenReturn(5L);
+    void testAdjustWaitsForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            availabilityService.decrease(today, today);
+            availabilityService.increase();
+            verifyNoInteractions(cache);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(cache).adjust(Map.of(today, -1L));
+        verify(cache).adjustAll(1);
+    }
 
-        availabilityService.refreshFromDatabase();
+    @Test
+    void testFailedCounterUpdateAfterCommitIsNotThrown() {
+        when(cache.adjust(any())).thenThrow(new RuntimeException("redis down"));
 
-        verify(unitRepository).countAvailableToday(any(LocalDate.class));
-        verify(cache).update(5);
+        availabilityService.decrease(today, today);
+
+        verify(cache).adjust(Map.of(today, -1L));
     }
 
     @Test
     void testGetAvailableUnitsSuccess() {
-        stubCachePresent();
-        when(cache.get()).thenReturn(7);
+        when(cache.find(today)).thenReturn(7);
 
-        var result = availabilityService.getAvailableUnits();
+        var result = availabilityService.getAvailableUnits(today);
 
-        verify(cache).hasValue();
-        verify(cache).get();
+        verify(cache).find(today);
+        verifyNoInteractions(unitRepository);
         assertThat(result).isEqualTo(7);
     }
 
     @Test
-    void testInitializeFailWhenCacheMissing() {
-        when(cache.hasValue()).thenReturn(false);
-        when(unitRepository.countAvailableToday(any(LocalDate.class))).thenThrow(new RuntimeException(DB_DOWN_MESSAGE));
+    void testGetAvailableUnitsForFutureDate() {
+        when(cache.find(today.plusDays(10))).thenReturn(3);
 
-        assertThatThrownBy(() -> availabilityService.initialize())
-                .isInstanceOf(RuntimeException.class)
-                .hasMessageContaining(DB_DOWN_MESSAGE);
+        assertThat(availabilityService.getAvailableUnits(today.plusDays(10))).isEqualTo(3);
     }
 
     @Test
-    void testRefreshFromDatabaseFail() {
+    void testGetAvailableUnitsInitializesWhenCacheMissing() {
+        when(cache.find(today)).thenReturn(null);
+        when(unitRepository.countAvailableToday(today)).thenReturn(5L);
+        when(cache.initializeIfAbsent(today, 5)).thenReturn(5L);
+
+        assertThat(availabilityService.getAvailableUnits(today)).isEqualTo(5);
+    }
+
+    @Test
+    void testGetAvailableUnitsFailOutsideHorizon() {
+        assertThatThrownBy(() -> availabilityService.getAvailableUnits(today.minusDays(1)))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> availabilityService.getAvailableUnits(today.plusDays(90)))
+                .isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(cache);
+    }
+
+    @Test
+    void testRollOverRemovesPastDaysSeedsMissingOnesAndRecountsTheRest() {
+        when(cache.find(any(LocalDate.class))).thenReturn(4);
+        when(cache.find(today.plusDays(89))).thenReturn(null);
+        when(unitRepository.countAvailableToday(any(LocalDate.class))).thenReturn(6L);
+        when(cache.initializeIfAbsent(today.plusDays(89), 6)).thenReturn(6L);
+
+        availabilityService.rollOver();
+
+        verify(cache).removeBefore(today);
+        verify(cache).initializeIfAbsent(today.plusDays(89), 6);
+        verify(cache, never()).initializeIfAbsent(today, 4);
+        verify(cache).update(today, 6);
+        verify(cache).update(today.plusDays(88), 6);
+        verify(cache, never()).update(today.plusDays(89), 6);
+    }
+
+    @Test
+    void testRollOverFailsWhenDatabaseDown() {
+        when(cache.find(today)).thenReturn(4);
         when(unitRepository.countAvailableToday(any(LocalDate.class))).thenThrow(new RuntimeException(DB_DOWN_MESSAGE));
 
-        assertThatThrownBy(() -> availabilityService.refreshFromDatabase())
+        assertThatThrownBy(() -> availabilityService.rollOver())
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining(DB_DOWN_MESSAGE);
     }
 
     @Test
     void testGetAvailableUnitsFailWhenCacheThrows() {
-        stubCachePresent();
-        when(cache.get()).thenThrow(new RuntimeException("cache down"));
+        when(cache.find(today)).thenThrow(new RuntimeException("cache down"));
 
-        assertThatThrownBy(() -> availabilityService.getAvailableUnits())
+        assertThatThrownBy(() -> availabilityService.getAvailableUnits(today))
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining("cache down");
     }
 
-    private void stubCachePresent() {
-        when(cache.hasValue()).thenReturn(true);
-    }
+    @Test
+    void testGetAvailableUnitsFailWhenDatabaseDown() {
+        when(cache.find(today)).thenReturn(null);
+        when(unitRepository.countAvailableToday(today)).thenThrow(new RuntimeException(DB_DOWN_MESSAGE));
 
-    private void stubCacheMissing(long availableCount) {
-        when(cache.hasValue()).thenReturn(false);
-        when(unitRepository.countAvailableToday(any(LocalDate.class))).thenReturn(availableCount);
+        assertThatThrownBy(() -> availabilityService.getAvailableUnits(today))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining(DB_DOWN_MESSAGE);
     }
 }
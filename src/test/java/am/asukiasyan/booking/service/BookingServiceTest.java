@@ -1,38 +1,58 @@
 package am.asukiasyan.booking.service;
 
+import am.asukiasyan.booking.availability.OccupancyService;
+import am.asukiasyan.booking.cache.UnitSearchCache;
 import am.asukiasyan.booking.domain.Booking;
 import am.asukiasyan.booking.domain.Payment;
 import am.asukiasyan.booking.domain.Unit;
 import am.asukiasyan.booking.domain.User;
+import am.asukiasyan.booking.dto.BatchBookingError;
+import am.asukiasyan.booking.dto.BatchBookingRequest;
 import am.asukiasyan.booking.dto.BookingRequest;
+import am.asukiasyan.booking.dto.BookingResponse;
+import am.asukiasyan.booking.enums.BatchMode;
 import am.asukiasyan.booking.enums.BookingStatus;
 import am.asukiasyan.booking.enums.PaymentStatus;
 import am.asukiasyan.booking.enums.UnitEventType;
 import am.asukiasyan.booking.exception.ConflictException;
 import am.asukiasyan.booking.exception.NotFoundException;
+import am.asukiasyan.booking.expiry.BookingExpiryWheel;
 import am.asukiasyan.booking.repository.BookingRepository;
 import am.asukiasyan.booking.repository.PaymentRepository;
 import am.asukiasyan.booking.repository.UnitRepository;
 import am.asukiasyan.booking.repository.UserRepository;
+import am.asukiasyan.booking.repository.projection.BookingSpan;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -60,6 +80,21 @@ class BookingServiceTest {
     @Mock
     private AvailabilityService availabilityService;
 
+    @Mock
+    private OccupancyService occupancyService;
+
+    @Mock
+    private BookingExpiryWheel expiryWheel;
+
+    @Mock
+    private UnitSearchCache unitSearchCache;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private BookingService bookingService;
 
@@ -83,11 +118,11 @@ class BookingServiceTest {
 
     @Test
     void testCreateBookingSuccess() {
-        when(unitRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(unit));
+        when(unitRepository.findById(1L)).thenReturn(Optional.of(unit));
         when(userRepository.findById(2L)).thenReturn(Optional.of(user));
-        when(bookingRepository.existsActiveBooking(eq(1L), any(), any())).thenReturn(false);
+        when(occupancyService.reserve(eq(1L), any(), any())).thenReturn(true);
         when(unitService.addMarkup(new BigDecimal("100"))).thenReturn(new BigDecimal("115.00"));
-        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> {
+        when(bookingRepository.saveAndFlush(any(Booking.class))).thenAnswer(invocation -> {
             var booking = invocation.getArgument(0, Booking.class);
             booking.setId(10L);
             return booking;
@@ -104,12 +139,14 @@ class BookingServiceTest {
         assertThat(response.paymentStatus()).isEqualTo(PaymentStatus.PENDING);
         assertThat(response.totalCost()).isEqualByComparingTo("115.00");
         verify(unitEventService).recordEvent(unit, UnitEventType.BOOKED, "Booking created and pending payment");
-        verify(availabilityService).decreaseIfPossible();
+        verify(availabilityService).decrease(startDate, endDate);
+        verify(expiryWheel).register(eq(10L), any(Instant.class));
+        verify(unitSearchCache).evictBooking(unit, startDate, endDate);
     }
 
     @Test
     void testCreateBookingFailUnitNotFound() {
-        when(unitRepository.findByIdForUpdate(1L)).thenReturn(Optional.empty());
+        when(unitRepository.findById(1L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> bookingService.createBooking(request))
                 .isInstanceOf(NotFoundException.class)
@@ -118,7 +155,7 @@ class BookingServiceTest {
 
     @Test
     void testCreateBookingFailUserNotFound() {
-        when(unitRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(unit));
+        when(unitRepository.findById(1L)).thenReturn(Optional.of(unit));
         when(userRepository.findById(2L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> bookingService.createBooking(request))
@@ -128,24 +165,40 @@ class BookingServiceTest {
 
     @Test
     void testCreateBookingFailAvailabilityConflict() {
-        when(unitRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(unit));
-        when(bookingRepository.existsActiveBooking(eq(1L), any(), any())).thenReturn(true);
+        when(unitRepository.findById(1L)).thenReturn(Optional.of(unit));
+        when(occupancyService.reserve(eq(1L), any(), any())).thenReturn(false);
 
         assertThatThrownBy(() -> bookingService.createBooking(request))
                 .isInstanceOf(ConflictException.class)
                 .hasMessageContaining("Unit is unavailable");
-        verify(bookingRepository, never()).save(any());
+        verify(bookingRepository, never()).saveAndFlush(any());
         verify(paymentRepository, never()).save(any());
+        assertThat(meterRegistry.counter("booking.conflicts", "reason", "occupancy").count()).isEqualTo(1);
     }
 
     @Test
-    void testCreateBookingFutureDoesNotTouchAvailability() {
+    void testCreateBookingFailExclusionConstraintViolation() {
+        when(unitRepository.findById(1L)).thenReturn(Optional.of(unit));
+        when(userRepository.findById(2L)).thenReturn(Optional.of(user));
+        when(occupancyService.reserve(eq(1L), any(), any())).thenReturn(true);
+        when(unitService.addMarkup(new BigDecimal("100"))).thenReturn(new BigDecimal("115.00"));
+        when(bookingRepository.saveAndFlush(any(Booking.class))).thenThrow(new DataIntegrityViolationException(
+                "overlap", new SQLException("conflicting key value violates exclusion constraint", "23P01")));
+
+        assertThatThrownBy(() -> bookingService.createBooking(request))
+                .isInstanceOf(ConflictException.class)
+                .hasMessageContaining("Unit is unavailable");
+        verify(paymentRepository, never()).save(any());
+    }
+
+    @Test
+    void testCreateBookingFutureDecreasesAvailabilityForBookedDays() {
         var futureRequest = new BookingRequest(1L, 2L, LocalDate.now().plusDays(10), LocalDate.now().plusDays(11));
-        when(unitRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(unit));
+        when(unitRepository.findById(1L)).thenReturn(Optional.of(unit));
         when(userRepository.findById(2L)).thenReturn(Optional.of(user));
-        when(bookingRepository.existsActiveBooking(eq(1L), any(), any())).thenReturn(false);
+        when(occupancyService.reserve(eq(1L), any(), any())).thenReturn(true);
         when(unitService.addMarkup(new BigDecimal("100"))).thenReturn(new BigDecimal("115.00"));
-        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> {
+        when(bookingRepository.saveAndFlush(any(Booking.class))).thenAnswer(invocation -> {
             var booking = invocation.getArgument(0, Booking.class);
             booking.setId(10L);
             return booking;
@@ -158,7 +211,7 @@ class BookingServiceTest {
 
         bookingService.createBooking(futureRequest);
 
-        verify(availabilityService, never()).decreaseIfPossible();
+        verify(availabilityService).decrease(futureRequest.startDate(), futureRequest.endDate());
     }
 
     @Test
@@ -172,8 +225,10 @@ class BookingServiceTest {
 
         assertThat(response.status()).isEqualTo(BookingStatus.CANCELLED);
         verify(paymentRepository).findByBookingId(1L);
-        verify(availabilityService).increase();
+        verify(availabilityService).increase(startDate, endDate);
         verify(unitEventService).recordEvent(booking.getUnit(), UnitEventType.CANCELLED, "Booking cancelled");
+        verify(occupancyService).release(1L, startDate, endDate);
+        verify(unitSearchCache).evictBooking(booking.getUnit(), startDate, endDate);
     }
 
     @Test
@@ -206,7 +261,7 @@ class BookingServiceTest {
 
         assertThat(response.status()).isEqualTo(BookingStatus.CANCELLED);
         verify(paymentRepository).findByBookingId(1L);
-        verify(availabilityService, never()).increase();
+        verify(availabilityService, never()).increase(any(LocalDate.class), any(LocalDate.class));
     }
 
     @Test
@@ -220,6 +275,7 @@ class BookingServiceTest {
 
         assertThat(response.status()).isEqualTo(BookingStatus.CONFIRMED);
         assertThat(response.paymentStatus()).isEqualTo(PaymentStatus.PAID);
+        verify(expiryWheel).unregister(1L);
         verify(unitEventService).recordEvent(booking.getUnit(), UnitEventType.PAYMENT_CONFIRMED, "Payment received");
     }
 
@@ -246,34 +302,80 @@ class BookingServiceTest {
     }
 
     @Test
-    void testCancelExpiredBookingsIncreasesAvailabilityForTodayOnly() {
+    void testCancelExpiredBookingsIncreasesAvailabilityForBookedDays() {
+        stubTransactionTemplate();
         var todayBooking = bookingWithStatus(BookingStatus.PENDING_PAYMENT);
         todayBooking.setExpiresAt(Instant.now().minusSeconds(5));
         var futureBooking = bookingWithStatus(BookingStatus.PENDING_PAYMENT);
+        futureBooking.setId(2L);
         futureBooking.setStartDate(LocalDate.now().plusDays(3));
         futureBooking.setEndDate(LocalDate.now().plusDays(4));
         futureBooking.setExpiresAt(Instant.now().minusSeconds(5));
 
-        when(bookingRepository.findExpiredBookings(any())).thenReturn(List.of(todayBooking, futureBooking));
-        when(paymentRepository.findByBookingId(any())).thenReturn(Optional.of(payment));
+        when(bookingRepository.claimExpiredBookings(any(), anyInt())).thenReturn(List.of(todayBooking, futureBooking));
+        when(paymentRepository.updateStatusByBookingIds(List.of(1L, 2L), PaymentStatus.CANCELLED)).thenReturn(2);
 
         int cancelled = bookingService.cancelExpiredBookings();
 
         assertThat(cancelled).isEqualTo(2);
-        assertThat(todayBooking.getStatus()).isEqualTo(BookingStatus.CANCELLED);
-        assertThat(futureBooking.getStatus()).isEqualTo(BookingStatus.CANCELLED);
-        verify(availabilityService).increaseBy(1);
-        verify(unitEventService, atLeastOnce()).recordEvent(eq(unit), eq(UnitEventType.CANCELLED), any());
+        verify(bookingRepository).updateStatus(eq(List.of(1L, 2L)), eq(BookingStatus.CANCELLED), any());
+        var spans = List.of(
+                new BookingSpan(1L, 1L, startDate, endDate),
+                new BookingSpan(2L, 1L, futureBooking.getStartDate(), futureBooking.getEndDate()));
+        verify(availabilityService).increase(spans);
+        verify(unitSearchCache).evictBookings(spans);
+        verify(unitEventService).recordEvents(List.of(1L, 1L), UnitEventType.CANCELLED, "Cancelled by TTL");
+        verify(occupancyService).release(1L, futureBooking.getStartDate(), futureBooking.getEndDate());
+    }
+
+    @Test
+    void testCancelExpiredBookingsDrainsFullChunksUntilShortOne() {
+        stubTransactionTemplate();
+        var fullChunk = IntStream.range(0, 500)
+                .mapToObj(i -> {
+                    var booking = bookingWithStatus(BookingStatus.PENDING_PAYMENT);
+                    booking.setId((long) i);
+                    booking.setStartDate(LocalDate.now().plusDays(5));
+                    booking.setEndDate(LocalDate.now().plusDays(6));
+                    return booking;
+                })
+                .toList();
+        when(bookingRepository.claimExpiredBookings(any(), eq(500))).thenReturn(fullChunk, List.of());
+        when(paymentRepository.updateStatusByBookingIds(any(), eq(PaymentStatus.CANCELLED))).thenReturn(500);
+
+        int cancelled = bookingService.cancelExpiredBookings();
+
+        assertThat(cancelled).isEqualTo(500);
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(availabilityService).increase(anyCollection());
+        assertThat(meterRegistry.summary("booking.expiry.batch.size").totalAmount()).isEqualTo(500);
+        assertThat(meterRegistry.timer("booking.expiry.duration", "trigger", "sweep").count()).isEqualTo(1);
     }
 
     @Test
     void testCancelExpiredBookingsReturnsZeroWhenNothingFound() {
-        when(bookingRepository.findExpiredBookings(any())).thenReturn(List.of());
+        stubTransactionTemplate();
+        when(bookingRepository.claimExpiredBookings(any(), anyInt())).thenReturn(List.of());
 
         int cancelled = bookingService.cancelExpiredBookings();
 
         assertThat(cancelled).isZero();
-        verify(availabilityService, never()).increaseBy(any(Integer.class));
+        verify(availabilityService, never()).increase(anyCollection());
+        verify(bookingRepository, never()).updateStatus(any(), any(), any());
+    }
+
+    @Test
+    void testCancelExpiredBookingsByIdsCancelsStillPendingOnes() {
+        var booking = bookingWithStatus(BookingStatus.PENDING_PAYMENT);
+        booking.setExpiresAt(Instant.now().minusSeconds(1));
+        when(bookingRepository.claimExpiredBookingsByIds(eq(List.of(1L, 2L)), any())).thenReturn(List.of(booking));
+        when(paymentRepository.updateStatusByBookingIds(List.of(1L), PaymentStatus.CANCELLED)).thenReturn(1);
+
+        int cancelled = bookingService.cancelExpiredBookings(List.of(1L, 2L));
+
+        assertThat(cancelled).isEqualTo(1);
+        verify(bookingRepository).updateStatus(eq(List.of(1L)), eq(BookingStatus.CANCELLED), any());
+        verify(expiryWheel).unregister(1L);
     }
 
     @Test
@@ -289,6 +391,155 @@ class BookingServiceTest {
 
 
 
+    @Test
+    void testCreateBookingsBestEffortBooksAvailableAndReportsRest() {
+        var otherUnit = new Unit();
+        otherUnit.setId(3L);
+        otherUnit.setBaseCost(new BigDecimal("100"));
+        var batch = new BatchBookingRequest(List.of(
+                new BookingRequest(3L, 2L, startDate, endDate),
+                new BookingRequest(9L, 2L, startDate, endDate),
+                new BookingRequest(1L, 2L, startDate, endDate),
+                new BookingRequest(3L, 2L, endDate, endDate.plusDays(1)),
+                new BookingRequest(1L, 2L, endDate.plusDays(1), endDate.plusDays(2))
+        ), BatchMode.BEST_EFFORT);
+        stubTransactionTemplate();
+        when(unitRepository.lockAllByIdOrderById(List.of(3L, 9L, 1L))).thenReturn(List.of(unit, otherUnit));
+        when(userRepository.findAllById(List.of(2L))).thenReturn(List.of(user));
+        when(bookingRepository.findActiveSpans(anyCollection(), eq(startDate), eq(endDate.plusDays(2))))
+                .thenReturn(List.of(new BookingSpan(7L, 1L, endDate, endDate)));
+        stubBatchInsert();
+
+        var response = bookingService.createBookings(batch);
+
+        assertThat(response.booked()).extracting(BookingResponse::unitId).containsExactly(1L, 3L);
+        assertThat(response.rejected()).containsExactly(
+                new BatchBookingError(1, 9L, "Unit not found"),
+                new BatchBookingError(2, 1L, "Unit is unavailable for the selected dates"),
+                new BatchBookingError(3, 3L, "Unit is unavailable for the selected dates"));
+        verify(occupancyService, times(2)).claim(any(), any(), any());
+        verify(unitEventService).recordEvents(List.of(1L, 3L), UnitEventType.BOOKED, "Booking created and pending payment");
+        verify(availabilityService).decrease(anyCollection());
+        verify(unitSearchCache).evictBookings(anyCollection());
+        verify(expiryWheel, times(2)).register(any(), any(Instant.class));
+    }
+
+    @Test
+    void testCreateBookingsAllOrNothingRejectsWholeBatch() {
+        var batch = new BatchBookingRequest(List.of(
+                new BookingRequest(1L, 2L, startDate, endDate),
+                new BookingRequest(1L, 2L, endDate, endDate.plusDays(1))
+        ), null);
+        stubTransactionTemplate();
+        when(unitRepository.lockAllByIdOrderById(List.of(1L))).thenReturn(List.of(unit));
+        when(userRepository.findAllById(List.of(2L))).thenReturn(List.of(user));
+        when(bookingRepository.findActiveSpans(anyCollection(), any(), any())).thenReturn(List.of());
+
+        assertThatThrownBy(() -> bookingService.createBookings(batch))
+                .isInstanceOf(ConflictException.class)
+                .hasMessageContaining("bookings[1]");
+        verify(bookingRepository, never()).saveAllAndFlush(anyList());
+        verify(occupancyService, never()).claim(any(), any(), any());
+        verify(availabilityService, never()).decrease(anyCollection());
+    }
+
+    @Test
+    void testCreateBookingsLocksUnitsBeforeCheckingOverlaps() {
+        var batch = new BatchBookingRequest(List.of(new BookingRequest(1L, 2L, startDate, endDate)), BatchMode.ALL_OR_NOTHING);
+        stubTransactionTemplate();
+        when(unitRepository.lockAllByIdOrderById(List.of(1L))).thenReturn(List.of(unit));
+        when(userRepository.findAllById(List.of(2L))).thenReturn(List.of(user));
+        when(bookingRepository.findActiveSpans(anyCollection(), eq(startDate), eq(endDate))).thenReturn(List.of());
+        stubBatchInsert();
+
+        var response = bookingService.createBookings(batch);
+
+        assertThat(response.booked()).hasSize(1);
+        assertThat(response.rejected()).isEmpty();
+        var order = inOrder(unitRepository, bookingRepository, paymentRepository);
+        order.verify(unitRepository).lockAllByIdOrderById(List.of(1L));
+        order.verify(bookingRepository).findActiveSpans(anyCollection(), eq(startDate), eq(endDate));
+        order.verify(bookingRepository).saveAllAndFlush(anyList());
+        order.verify(paymentRepository).saveAll(anyList());
+    }
+
+    @Test
+    void testCreateBookingsAllOrNothingFailsWhenDatabaseRejectsOverlap() {
+        var batch = new BatchBookingRequest(List.of(new BookingRequest(1L, 2L, startDate, endDate)), BatchMode.ALL_OR_NOTHING);
+        stubTransactionTemplate();
+        when(unitRepository.lockAllByIdOrderById(List.of(1L))).thenReturn(List.of(unit));
+        when(userRepository.findAllById(List.of(2L))).thenReturn(List.of(user));
+        when(bookingRepository.findActiveSpans(anyCollection(), any(), any())).thenReturn(List.of());
+        when(bookingRepository.saveAllAndFlush(anyList())).thenThrow(exclusionViolation());
+
+        assertThatThrownBy(() -> bookingService.createBookings(batch))
+                .isInstanceOf(ConflictException.class);
+        verify(transactionTemplate).execute(any());
+        verify(paymentRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void testCreateBookingsBestEffortRetriesAndRejectsOnlyEntriesOverlappingConcurrentBooking() {
+        var otherUnit = new Unit();
+        otherUnit.setId(3L);
+        otherUnit.setBaseCost(new BigDecimal("100"));
+        var batch = new BatchBookingRequest(List.of(
+                new BookingRequest(1L, 2L, startDate, endDate),
+                new BookingRequest(3L, 2L, startDate, endDate)
+        ), BatchMode.BEST_EFFORT);
+        stubTransactionTemplate();
+        when(unitRepository.lockAllByIdOrderById(List.of(1L, 3L))).thenReturn(List.of(unit, otherUnit));
+        when(userRepository.findAllById(List.of(2L))).thenReturn(List.of(user));
+        when(bookingRepository.findActiveSpans(anyCollection(), eq(startDate), eq(endDate)))
+                .thenReturn(List.of())
+                .thenReturn(List.of(new BookingSpan(7L, 1L, startDate, endDate)));
+        when(bookingRepository.saveAllAndFlush(anyList()))
+                .thenThrow(exclusionViolation())
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(paymentRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        var response = bookingService.createBookings(batch);
+
+        assertThat(response.booked()).extracting(BookingResponse::unitId).containsExactly(3L);
+        assertThat(response.rejected()).containsExactly(
+                new BatchBookingError(0, 1L, "Unit is unavailable for the selected dates"));
+        verify(transactionTemplate, times(2)).execute(any());
+    }
+
+    @Test
+    void testCreateBookingsBestEffortGivesUpWhenDatabaseKeepsRejectingOverlap() {
+        var batch = new BatchBookingRequest(List.of(new BookingRequest(1L, 2L, startDate, endDate)), BatchMode.BEST_EFFORT);
+        stubTransactionTemplate();
+        when(unitRepository.lockAllByIdOrderById(List.of(1L))).thenReturn(List.of(unit));
+        when(userRepository.findAllById(List.of(2L))).thenReturn(List.of(user));
+        when(bookingRepository.findActiveSpans(anyCollection(), any(), any())).thenReturn(List.of());
+        when(bookingRepository.saveAllAndFlush(anyList())).thenThrow(exclusionViolation());
+
+        assertThatThrownBy(() -> bookingService.createBookings(batch))
+                .isInstanceOf(ConflictException.class);
+        verify(bookingRepository, times(3)).saveAllAndFlush(anyList());
+        verify(paymentRepository, never()).saveAll(anyList());
+    }
+
+    private void stubBatchInsert() {
+        when(bookingRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> {
+            List<Booking> bookings = invocation.getArgument(0);
+            IntStream.range(0, bookings.size()).forEach(i -> bookings.get(i).setId(100L + i));
+            return bookings;
+        });
+        when(paymentRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    private void stubTransactionTemplate() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private DataIntegrityViolationException exclusionViolation() {
+        return new DataIntegrityViolationException("overlap",
+                new SQLException("conflicting key value violates exclusion constraint", "23P01"));
+    }
+
     private void stubFindBooking(Booking booking) {
         when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
     }
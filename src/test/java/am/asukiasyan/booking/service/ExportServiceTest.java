@@ -0,0 +1,129 @@
+package am.asukiasyan.booking.service;
+
+import am.asukiasyan.booking.dto.UnitResponse;
+import am.asukiasyan.booking.dto.UnitSearchRequest;
+import am.asukiasyan.booking.enums.BookingStatus;
+import am.asukiasyan.booking.enums.ExportFormat;
+import am.asukiasyan.booking.enums.UnitEventType;
+import am.asukiasyan.booking.enums.UnitType;
+import am.asukiasyan.booking.repository.BookingRepository;
+import am.asukiasyan.booking.repository.UnitEventRepository;
+import am.asukiasyan.booking.repository.projection.BookingExport;
+import am.asukiasyan.booking.repository.projection.UnitEventExport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ExportServiceTest {
+
+    @Mock
+    private UnitService unitService;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private UnitEventRepository unitEventRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @InjectMocks
+    private ExportService exportService;
+
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    @Test
+    void exportsUnitsAsCsvThatReadsBackIntoTheSameFields() throws Exception {
+        var request = new UnitSearchRequest(2, UnitType.FLAT, null, null, null, null, null, null, null, null, null, null,
+                null, null);
+        var createdAt = Instant.parse("2026-01-02T03:04:05Z");
+        when(unitService.stream(request)).thenReturn(Stream.of(new UnitResponse(7L, 2, UnitType.FLAT, 3,
+                "Sea view, \"top\" floor", new BigDecimal("100.00"), new BigDecimal("115.00"), createdAt)));
+
+        var written = exportService.exportUnits(request, ExportFormat.CSV, output);
+
+        var lines = lines();
+        assertThat(written).isEqualTo(1);
+        assertThat(lines).hasSize(2);
+        assertThat(UnitImportService.splitCsv(lines.get(0))).isEqualTo(ExportService.UNIT_COLUMNS);
+        assertThat(UnitImportService.splitCsv(lines.get(1))).containsExactly(
+                "7", "2", "FLAT", "3", "Sea view, \"top\" floor", "100.00", "115.00", createdAt.toString());
+    }
+
+    @Test
+    void exportsBookingsAsOneJsonObjectPerLine() throws Exception {
+        var today = LocalDate.now();
+        var now = Instant.now();
+        var since = Instant.parse("2026-03-01T10:00:00Z");
+        when(bookingRepository.streamChangedSince(Instant.parse("2026-03-01T09:55:00Z"))).thenReturn(Stream.of(
+                new BookingExport(11L, 1L, 1L, today, today.plusDays(1), BookingStatus.CONFIRMED,
+                        new BigDecimal("50.00"), now, now),
+                new BookingExport(12L, 2L, 1L, today, today.plusDays(2), BookingStatus.CANCELLED,
+                        new BigDecimal("75.00"), now, now)));
+
+        var written = exportService.exportBookings(since, ExportFormat.NDJSON, output);
+
+        var lines = lines();
+        assertThat(written).isEqualTo(2);
+        assertThat(lines).hasSize(2);
+        var second = objectMapper.readTree(lines.get(1));
+        assertThat(second.get("id").asLong()).isEqualTo(12L);
+        assertThat(second.get("status").asText()).isEqualTo("CANCELLED");
+        assertThat(second.get("startDate").asText()).isEqualTo(today.toString());
+    }
+
+    @Test
+    void closesTheStreamOnceExported() throws Exception {
+        var closed = new AtomicBoolean();
+        when(unitEventRepository.streamRecordedSince(Instant.EPOCH)).thenReturn(Stream.of(
+                        new UnitEventExport(1L, 1L, UnitEventType.CREATED, null, Instant.now(), Instant.now()))
+                .onClose(() -> closed.set(true)));
+
+        exportService.exportUnitEvents(null, ExportFormat.CSV, output);
+
+        assertThat(lines()).hasSize(2);
+        assertThat(UnitImportService.splitCsv(lines().get(1)).get(3)).isEmpty();
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void writesHeaderOnlyWhenNothingMatches() throws Exception {
+        when(bookingRepository.streamChangedSince(Instant.EPOCH)).thenReturn(Stream.empty());
+
+        assertThat(exportService.exportBookings(null, ExportFormat.CSV, output)).isZero();
+        assertThat(lines()).containsExactly(String.join(",", ExportService.BOOKING_COLUMNS));
+    }
+
+    @Test
+    void toCsvQuotesOnlyWhenNeededAndWritesPlainDecimals() {
+        assertThat(ExportService.toCsv(Arrays.asList(null, new BigDecimal("1E+3"), "plain", "two\nlines")))
+                .isEqualTo(",1000,plain,\"two\nlines\"");
+    }
+
+    private List<String> lines() {
+        return output.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+}
@@ -1,9 +1,9 @@
 package am.asukiasyan.booking.service;
 
 import am.asukiasyan.booking.domain.Unit;
-import am.asukiasyan.booking.domain.UnitEvent;
 import am.asukiasyan.booking.enums.UnitEventType;
-import am.asukiasyan.booking.repository.UnitEventRepository;
+import am.asukiasyan.booking.event.PendingUnitEvent;
+import am.asukiasyan.booking.event.UnitEventWriter;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -11,14 +11,18 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Collection;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 @ExtendWith(MockitoExtension.class)
 class UnitEventServiceTest {
 
     @Mock
-    private UnitEventRepository unitEventRepository;
+    private UnitEventWriter unitEventWriter;
 
     @InjectMocks
     private UnitEventService unitEventService;
@@ -26,13 +30,36 @@ class UnitEventServiceTest {
     @Test
     void testRecordEventSuccess() {
         var unit = new Unit();
+        unit.setId(3L);
         unitEventService.recordEvent(unit, UnitEventType.CREATED, "details");
 
-        var captor = ArgumentCaptor.forClass(UnitEvent.class);
-        verify(unitEventRepository).save(captor.capture());
-        var saved = captor.getValue();
-        assertThat(saved.getUnit()).isEqualTo(unit);
-        assertThat(saved.getEventType()).isEqualTo(UnitEventType.CREATED);
-        assertThat(saved.getDetails()).isEqualTo("details");
+        var events = captureAppended();
+        assertThat(events).singleElement().satisfies(event -> {
+            assertThat(event.unitId()).isEqualTo(3L);
+            assertThat(event.type()).isEqualTo(UnitEventType.CREATED);
+            assertThat(event.details()).isEqualTo("details");
+            assertThat(event.createdAt()).isNotNull();
+        });
+    }
+
+    @Test
+    void testRecordEventsAppendsOneEventPerUnit() {
+        unitEventService.recordEvents(List.of(1L, 2L), UnitEventType.CANCELLED, "details");
+
+        assertThat(captureAppended()).extracting(PendingUnitEvent::unitId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void testRecordEventsSkipsEmptyBatch() {
+        unitEventService.recordEvents(List.of(), UnitEventType.CANCELLED, "details");
+
+        verifyNoInteractions(unitEventWriter);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<PendingUnitEvent> captureAppended() {
+        ArgumentCaptor<Collection<PendingUnitEvent>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(unitEventWriter).append(captor.capture());
+        return captor.getValue();
     }
 }
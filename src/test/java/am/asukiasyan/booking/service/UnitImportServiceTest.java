@@ -0,0 +1,206 @@
+package am.asukiasyan.booking.service;
+
+import am.asukiasyan.booking.cache.UnitSearchCache;
+import am.asukiasyan.booking.domain.Unit;
+import am.asukiasyan.booking.dto.UnitImportError;
+import am.asukiasyan.booking.enums.ImportFormat;
+import am.asukiasyan.booking.enums.UnitType;
+import am.asukiasyan.booking.repository.UnitRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static am.asukiasyan.booking.enums.UnitEventType.CREATED;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UnitImportServiceTest {
+
+    @Mock
+    private UnitRepository unitRepository;
+
+    @Mock
+    private UnitEventService unitEventService;
+
+    @Mock
+    private AvailabilityService availabilityService;
+
+    @Mock
+    private UnitSearchCache unitSearchCache;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @InjectMocks
+    private UnitImportService unitImportService;
+
+    private final AtomicLong ids = new AtomicLong();
+
+    @Test
+    void importsNdjsonAndReportsInvalidLines() throws Exception {
+        stubTransactionTemplate();
+        stubSaveAll();
+
+        var response = unitImportService.importUnits(stream("""
+                {"rooms":2,"type":"HOME","floor":1,"description":"home","baseCost":50}
+
+                {"rooms":0,"type":"FLAT","floor":1,"description":"flat","baseCost":50}
+                {"rooms":3,"type":
+                {"rooms":1,"type":"FLAT","floor":2,"description":"flat","baseCost":70}
+                """), ImportFormat.NDJSON);
+
+        assertThat(response.imported()).isEqualTo(2);
+        assertThat(response.failed()).isEqualTo(2);
+        assertThat(response.errors()).extracting(UnitImportError::line).containsExactly(3L, 4L);
+        assertThat(response.errors().get(0).message()).contains("rooms");
+        assertThat(response.errors().get(1).message()).startsWith("Malformed JSON");
+        verify(unitRepository).saveAll(anyList());
+        verify(unitEventService).recordEvents(List.of(1L, 2L), CREATED, "Unit imported");
+        verify(availabilityService).increase(2);
+        verify(unitSearchCache).evictUnits(anyCollection());
+    }
+
+    @Test
+    void importsCsvWithHeaderAndQuotedFields() throws Exception {
+        stubTransactionTemplate();
+        when(unitRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Unit> units = invocation.getArgument(0);
+            assertThat(units).extracting(Unit::getDescription).containsExactly("sea view, \"quiet\"", "loft");
+            assertThat(units).extracting(Unit::getType).containsExactly(UnitType.APARTMENTS, UnitType.FLAT);
+            assertThat(units.get(1).getBaseCost()).isEqualByComparingTo(BigDecimal.valueOf(80.5));
+            return units.stream().peek(unit -> unit.setId(ids.incrementAndGet())).toList();
+        });
+
+        var response = unitImportService.importUnits(stream("""
+                rooms,type,floor,description,baseCost
+                2,APARTMENTS,3,"sea view, ""quiet""",120
+                1,FLAT,0,loft,80.5
+                1,CASTLE,0,tower,10
+                1,FLAT,0,too,many,10
+                """), ImportFormat.CSV);
+
+        assertThat(response.imported()).isEqualTo(2);
+        assertThat(response.errors()).extracting(UnitImportError::line).containsExactly(4L, 5L);
+        verify(availabilityService).increase(2);
+    }
+
+    @Test
+    void insertsInChunksWithOneAvailabilityUpdateEach() throws Exception {
+        stubTransactionTemplate();
+        stubSaveAll();
+        var rows = UnitImportService.CHUNK_SIZE + 5;
+        var payload = IntStream.range(0, rows)
+                .mapToObj(i -> "1,HOME,1,unit " + i + ",50")
+                .collect(Collectors.joining("\n"));
+
+        var response = unitImportService.importUnits(stream(payload), ImportFormat.CSV);
+
+        assertThat(response.imported()).isEqualTo(rows);
+        verify(unitRepository, times(2)).saveAll(anyList());
+        verify(availabilityService).increase(UnitImportService.CHUNK_SIZE);
+        verify(availabilityService).increase(5);
+        verify(unitEventService, times(2)).recordEvents(anyCollection(), eq(CREATED), any());
+    }
+
+    @Test
+    void failedChunkMarksItsRowsFailed() throws Exception {
+        stubTransactionTemplate();
+        when(unitRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("constraint"));
+
+        var response = unitImportService.importUnits(stream("""
+                1,HOME,1,a,50
+                2,HOME,1,b,50
+                """), ImportFormat.CSV);
+
+        assertThat(response.imported()).isZero();
+        assertThat(response.failed()).isEqualTo(2);
+        assertThat(response.errors()).extracting(UnitImportError::line).containsExactly(1L, 2L);
+        verify(availabilityService, never()).increase(anyInt());
+    }
+
+    @Test
+    void failedAvailabilityUpdateStillReportsCommittedRowsAsImported() throws Exception {
+        stubTransactionTemplate();
+        stubSaveAll();
+        doThrow(new RedisConnectionFailureException("redis down")).when(availabilityService).increase(anyInt());
+
+        var response = unitImportService.importUnits(stream("""
+                1,HOME,1,a,50
+                2,HOME,1,b,50
+                """), ImportFormat.CSV);
+
+        assertThat(response.imported()).isEqualTo(2);
+        assertThat(response.failed()).isZero();
+        assertThat(response.errors()).isEmpty();
+    }
+
+    @Test
+    void capsReportedErrors() throws Exception {
+        var rows = UnitImportService.MAX_REPORTED_ERRORS + 10;
+        var payload = IntStream.range(0, rows).mapToObj(i -> "not,a,unit").collect(Collectors.joining("\n"));
+
+        var response = unitImportService.importUnits(stream(payload), ImportFormat.CSV);
+
+        assertThat(response.failed()).isEqualTo(rows);
+        assertThat(response.errors()).hasSize(UnitImportService.MAX_REPORTED_ERRORS);
+        verifyNoInteractions(unitRepository, transactionTemplate, availabilityService);
+    }
+
+    @Test
+    void splitCsvRejectsUnterminatedQuote() {
+        assertThat(UnitImportService.splitCsv("a,\"b,c\",")).containsExactly("a", "b,c", "");
+        assertThatThrownBy(() -> UnitImportService.splitCsv("a,\"b"))
+                .hasMessageContaining("Unterminated");
+    }
+
+    private void stubTransactionTemplate() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private void stubSaveAll() {
+        when(unitRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.<List<Unit>>getArgument(0).stream()
+                .peek(unit -> unit.setId(ids.incrementAndGet()))
+                .toList());
+    }
+
+    private static ByteArrayInputStream stream(String payload) {
+        return new ByteArrayInputStream(payload.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,30 +1,42 @@
 package am.asukiasyan.booking.service;
 
+import am.asukiasyan.booking.cache.UnitCountCache;
+import am.asukiasyan.booking.cache.UnitSearchCache;
 import am.asukiasyan.booking.domain.Unit;
 import am.asukiasyan.booking.dto.PageResponse;
 import am.asukiasyan.booking.dto.UnitRequest;
 import am.asukiasyan.booking.dto.UnitResponse;
 import am.asukiasyan.booking.dto.UnitSearchRequest;
+import am.asukiasyan.booking.enums.CountMode;
+import am.asukiasyan.booking.enums.PaginationMode;
 import am.asukiasyan.booking.enums.UnitType;
+import am.asukiasyan.booking.exception.BadRequestException;
 import am.asukiasyan.booking.repository.UnitRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
 
 import static am.asukiasyan.booking.enums.UnitEventType.CREATED;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,6 +51,12 @@ class UnitServiceTest {
     @Mock
     private AvailabilityService availabilityService;
 
+    @Spy
+    private UnitSearchCache unitSearchCache = new UnitSearchCache(1_000, Duration.ofMinutes(1), Duration.ofSeconds(6), () -> false);
+
+    @Spy
+    private UnitCountCache unitCountCache = new UnitCountCache(1_000, Duration.ofMinutes(1));
+
     @InjectMocks
     private UnitService unitService;
 
@@ -68,27 +86,154 @@ class UnitServiceTest {
         verify(unitEventService)
                 .recordEvent(saved, CREATED, "Unit created");
         verify(availabilityService).increase();
+        verify(unitSearchCache).evictUnit(saved);
         assertThat(response.finalCost()).isEqualByComparingTo("57.50");
     }
 
     @Test
     void testSearchSuccess() {
-        var unit = buildUnit();
+        var unit = buildResponse(1L);
 
-        when(unitRepository.search(any(), any(), any(), any(), any(), any(), any(), anyBoolean(), any()))
-                .thenReturn(new PageImpl<>(List.of(unit), PageRequest.of(0, 10), 1));
+        when(unitRepository.search(any(), any(), any(), any(), any(), any(), any(), anyBoolean(), any(), any()))
+                .thenReturn(List.of(unit));
 
         PageResponse<UnitResponse> response = unitService.search(sampleSearchRequest());
 
         var minCaptor = ArgumentCaptor.forClass(BigDecimal.class);
         var maxCaptor = ArgumentCaptor.forClass(BigDecimal.class);
-        verify(unitRepository)
-                .search(any(), any(), any(), minCaptor.capture(), maxCaptor.capture(), any(), any(), anyBoolean(), any());
+        var markupCaptor = ArgumentCaptor.forClass(BigDecimal.class);
+        verify(unitRepository).search(any(), any(), any(), minCaptor.capture(), maxCaptor.capture(), any(), any(),
+                anyBoolean(), any(), markupCaptor.capture());
 
         assertThat(minCaptor.getValue()).isEqualByComparingTo("100.00");
         assertThat(maxCaptor.getValue()).isEqualByComparingTo("200.00");
-        assertThat(response.content()).hasSize(1);
-        assertThat(response.content().getFirst().finalCost()).isEqualByComparingTo("115.00");
+        assertThat(markupCaptor.getValue()).isEqualByComparingTo("1.15");
+        assertThat(response.content()).containsExactly(unit);
+    }
+
+    @Test
+    void testSearchServesRepeatedRequestFromCache() {
+        when(unitRepository.search(any(), any(), any(), any(), any(), any(), any(), anyBoolean(), any(), any()))
+                .thenReturn(List.of(buildResponse(1L)));
+
+        var first = unitService.search(sampleSearchRequest());
+        var second = unitService.search(new UnitSearchRequest(null, UnitType.APARTMENTS, null,
+                new BigDecimal("115"), new BigDecimal("230.0"), null, null, 0, 10, "id", Sort.Direction.ASC, null, null,
+                null));
+
+        assertThat(second).isSameAs(first);
+        verify(unitRepository, times(1))
+                .search(any(), any(), any(), any(), any(), any(), any(), anyBoolean(), any(), any());
+    }
+
+    @Test
+    void testSearchCappedCountReportsCapAsLowerBound() {
+        when(unitRepository.countMatchingUpTo(any(), any(), any(), any(), any(), any(), any(), anyBoolean(), eq(1001)))
+                .thenReturn(1001L);
+
+        var response = unitService.search(offsetRequest(0, null));
+
+        assertThat(response.totalElements()).isEqualTo(1000);
+        assertThat(response.totalExact()).isFalse();
+        verify(unitRepository, never()).countMatching(any(), any(), any(), any(), any(), any(), any(), anyBoolean());
+    }
+
+    @Test
+    void testSearchCappedCountBelowCapIsExact() {
+        when(unitRepository.countMatchingUpTo(any(), any(), any(), any(), any(), any(), any(), anyBoolean(), anyInt()))
+                .thenReturn(42L);
+
+        var response = unitService.search(offsetRequest(0, CountMode.CAPPED));
+
+        assertThat(response.totalElements()).isEqualTo(42);
+        assertThat(response.totalExact()).isTrue();
+    }
+
+    @Test
+    void testSearchExactCount() {
+        when(unitRepository.countMatching(any(), any(), any(), any(), any(), any(), any(), anyBoolean()))
+                .thenReturn(5_000L);
+
+        var response = unitService.search(offsetRequest(0, CountMode.EXACT));
+
+        assertThat(response.totalElements()).isEqualTo(5_000);
+        assertThat(response.totalExact()).isTrue();
+        verify(unitRepository, never())
+                .countMatchingUpTo(any(), any(), any(), any(), any(), any(), any(), anyBoolean(), anyInt());
+    }
+
+    @Test
+    void testSearchEstimatedCountIsSharedByAllPagesOfFilter() {
+        when(unitRepository.countMatching(any(), any(), any(), any(), any(), any(), any(), anyBoolean()))
+                .thenReturn(5_000L);
+
+        var first = unitService.search(offsetRequest(0, CountMode.ESTIMATED));
+        var second = unitService.search(offsetRequest(3, CountMode.ESTIMATED));
+
+        assertThat(first.totalElements()).isEqualTo(5_000);
+        assertThat(second.totalElements()).isEqualTo(5_000);
+        assertThat(second.totalExact()).isFalse();
+        verify(unitRepository, times(1))
+                .countMatching(any(), any(), any(), any(), any(), any(), any(), anyBoolean());
+    }
+
+    @Test
+    void testSearchWithoutTotalSkipsCounting() {
+        var response = unitService.search(offsetRequest(0, CountMode.NONE));
+
+        assertThat(response.totalElements()).isNull();
+        assertThat(response.totalExact()).isNull();
+        verify(unitRepository, never()).countMatching(any(), any(), any(), any(), any(), any(), any(), anyBoolean());
+        verify(unitRepository, never())
+                .countMatchingUpTo(any(), any(), any(), any(), any(), any(), any(), anyBoolean(), anyInt());
+    }
+
+    @Test
+    void testKeysetSearchReturnsCursorAfterLastUnit() {
+        when(unitRepository.searchAfter(any(), any(), any(), any(), any(), any(), any(), anyBoolean(), any(),
+                any(), any(), anyInt(), any()))
+                .thenReturn(List.of(buildResponse(4L), buildResponse(7L)));
+
+        var response = unitService.search(keysetRequest(null));
+
+        verify(unitRepository).searchAfter(any(), any(), any(), any(), any(), any(), any(), anyBoolean(), any(),
+                isNull(), isNull(), eq(2), any());
+        assertThat(response.content()).extracting(UnitResponse::id).containsExactly(4L);
+        assertThat(response.totalElements()).isNull();
+        assertThat(response.nextCursor()).isNotNull();
+        verify(unitRepository, never()).countMatching(any(), any(), any(), any(), any(), any(), any(), anyBoolean());
+
+        unitService.search(keysetRequest(response.nextCursor()));
+
+        verify(unitRepository).searchAfter(any(), any(), any(), any(), any(), any(), any(), anyBoolean(),
+                eq(new Sort.Order(Sort.Direction.ASC, "baseCost")), eq(new BigDecimal("100.00")), eq(4L), eq(2), any());
+    }
+
+    @Test
+    void testKeysetSearchLastPageHasNoCursor() {
+        when(unitRepository.searchAfter(any(), any(), any(), any(), any(), any(), any(), anyBoolean(), any(),
+                any(), any(), anyInt(), any()))
+                .thenReturn(List.of(buildResponse(1L)));
+
+        assertThat(unitService.search(keysetRequest(null)).nextCursor()).isNull();
+    }
+
+    @Test
+    void testKeysetSearchFailWithForeignCursor() {
+        var idCursor = UnitSearchCursor.after(buildResponse(1L), "id", Sort.Direction.ASC).encode();
+
+        assertThatThrownBy(() -> unitService.search(keysetRequest(idCursor)))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> unitService.search(keysetRequest("not-a-cursor")))
+                .isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(unitRepository);
+    }
+
+    @Test
+    void testKeysetSearchFailWithUnsupportedSort() {
+        assertThatThrownBy(() -> unitService.search(keysetRequestSortedBy("description", null)))
+                .isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(unitRepository);
     }
 
     private UnitRequest sampleRequest() {
@@ -107,17 +252,29 @@ class UnitServiceTest {
                 0,
                 10,
                 "id",
-                Sort.Direction.ASC
+                Sort.Direction.ASC,
+                null,
+                null,
+                null
         );
     }
 
-    private Unit buildUnit() {
-        return Unit.builder()
-                .baseCost(new BigDecimal("100.00"))
-                .rooms(2)
-                .type(UnitType.APARTMENTS)
-                .floor(3)
-                .description("desc")
-                .build();
+    private UnitSearchRequest offsetRequest(int page, CountMode count) {
+        return new UnitSearchRequest(null, UnitType.FLAT, null, null, null, null, null, page, 10, "id",
+                Sort.Direction.ASC, PaginationMode.OFFSET, null, count);
+    }
+
+    private UnitSearchRequest keysetRequest(String cursor) {
+        return keysetRequestSortedBy("baseCost", cursor);
+    }
+
+    private UnitSearchRequest keysetRequestSortedBy(String sortBy, String cursor) {
+        return new UnitSearchRequest(null, null, null, null, null, null, null, 0, 1, sortBy, Sort.Direction.ASC,
+                PaginationMode.KEYSET, cursor, null);
+    }
+
+    private UnitResponse buildResponse(Long id) {
+        return new UnitResponse(id, 2, UnitType.APARTMENTS, 3, "desc", new BigDecimal("100.00"),
+                new BigDecimal("115.00"), null);
     }
 }